@@ -0,0 +1,90 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.attraction.AttractionGeometry;
+import com.openclassrooms.tourguide.attraction.DistanceKernel;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.service.RewardsService;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Cost of checking one location against every attraction with the default 10
+ * miles proximity buffer: one {@link RewardsService#getDistance} call per
+ * attraction, compared with one batch of {@link AttractionGeometry} run by the
+ * scalar and the vector {@link DistanceKernel}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchDistanceBenchmark {
+	private static final int LOCATION_COUNT = 1024;
+	private static final double RADIUS_MILES = 10;
+
+	@Param({ "26", "1000" })
+	public int attractionCount;
+
+	@Param({ "scalar", "vector" })
+	public String kernel;
+
+	private RewardsService rewardsService;
+	private List<Attraction> attractions;
+	private AttractionGeometry geometry;
+	private Location[] locations;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		LocationProvider locationProvider = new SimulatedLocationProvider(attractionCount, 1, LatencyModel.none());
+		rewardsService = RewardsService
+				.builder(locationProvider, new SimulatedRewardPointsProvider(1, LatencyModel.none())).build();
+		attractions = locationProvider.getAttractions();
+		geometry = AttractionGeometry.of(attractions,
+				kernel.equals("vector") ? DistanceKernel.vector() : DistanceKernel.scalar());
+		SplittableRandom random = new SplittableRandom(5);
+		locations = new Location[LOCATION_COUNT];
+		for (int i = 0; i < LOCATION_COUNT; i++) {
+			locations[i] = BenchmarkLocations.random(random);
+		}
+	}
+
+	@Benchmark
+	public int getDistanceLoop() {
+		Location location = locations[next++ & (LOCATION_COUNT - 1)];
+		int within = 0;
+		for (Attraction attraction : attractions) {
+			if (rewardsService.getDistance(attraction, location) < RADIUS_MILES) {
+				within++;
+			}
+		}
+		return within;
+	}
+
+	@Benchmark
+	public int indexesWithin() {
+		Location location = locations[next++ & (LOCATION_COUNT - 1)];
+		return geometry.indexesWithin(AttractionGeometry.circle(location, RADIUS_MILES)).length;
+	}
+}
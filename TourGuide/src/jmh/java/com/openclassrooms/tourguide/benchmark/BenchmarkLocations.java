@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.SplittableRandom;
+
+import gpsUtil.location.Location;
+
+/**
+ * Random locations spread like the ones returned by GpsUtil.
+ */
+final class BenchmarkLocations {
+	private static final double MAX_LATITUDE = 85.05112878;
+
+	private BenchmarkLocations() {
+		super();
+	}
+
+	static Location random(SplittableRandom random) {
+		return new Location(random.nextDouble(-MAX_LATITUDE, MAX_LATITUDE), random.nextDouble(-180, 180));
+	}
+}
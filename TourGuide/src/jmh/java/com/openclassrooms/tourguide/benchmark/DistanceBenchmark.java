@@ -0,0 +1,88 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.attraction.AttractionGeometry;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.service.RewardsService;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Cost of one {@link RewardsService#getDistance(Location, Location)} call,
+ * compared with a distance and a 10 miles proximity check against a
+ * precomputed {@link AttractionGeometry}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DistanceBenchmark {
+	private static final int LOCATION_COUNT = 1024;
+
+	private RewardsService rewardsService;
+	private Location[] locations;
+	private AttractionGeometry geometry;
+	private AttractionGeometry.Point[] points;
+	private AttractionGeometry.Circle[] circles;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		rewardsService = RewardsService
+				.builder(new SimulatedLocationProvider(0, 1, LatencyModel.none()),
+						new SimulatedRewardPointsProvider(1, LatencyModel.none())).build();
+		SplittableRandom random = new SplittableRandom(7);
+		locations = new Location[LOCATION_COUNT];
+		for (int i = 0; i < LOCATION_COUNT; i++) {
+			locations[i] = BenchmarkLocations.random(random);
+		}
+		List<Attraction> attractions = new ArrayList<>();
+		points = new AttractionGeometry.Point[LOCATION_COUNT];
+		circles = new AttractionGeometry.Circle[LOCATION_COUNT];
+		for (int i = 0; i < LOCATION_COUNT; i++) {
+			Location location = locations[i];
+			attractions.add(new Attraction("attraction" + i, "city", "state", location.latitude, location.longitude));
+			points[i] = AttractionGeometry.point(location);
+			circles[i] = AttractionGeometry.circle(location, 10);
+		}
+		geometry = AttractionGeometry.of(attractions);
+	}
+
+	@Benchmark
+	public double getDistance() {
+		int i = next++ & (LOCATION_COUNT - 1);
+		return rewardsService.getDistance(locations[i], locations[(i + 1) & (LOCATION_COUNT - 1)]);
+	}
+
+	@Benchmark
+	public double geometryDistance() {
+		int i = next++ & (LOCATION_COUNT - 1);
+		return geometry.distance(i, points[(i + 1) & (LOCATION_COUNT - 1)]);
+	}
+
+	@Benchmark
+	public boolean geometryIsWithin() {
+		int i = next++ & (LOCATION_COUNT - 1);
+		return geometry.isWithin(i, circles[(i + 1) & (LOCATION_COUNT - 1)]);
+	}
+}
@@ -0,0 +1,103 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.user.VisitedLocationHistory;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Heap retained by one million visited locations spread over users having
+ * {@code locationCount} locations each, reported by the
+ * {@code bytesPerLocation} counter.
+ * <p>
+ * The {@code objects} layout keeps a list of {@link VisitedLocation} per user,
+ * each with its own {@link Location} and {@link Date}, as the history did
+ * before its columnar chunks. The {@code columns} layout keeps a
+ * {@link VisitedLocationHistory} per user. The counter adds up the measured
+ * iterations, hence a single one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class HistoryFootprintBenchmark {
+	private static final int TOTAL_LOCATIONS = 1_000_000;
+
+	@Param({ "3", "100", "1000" })
+	public int locationCount;
+
+	@Param({ "objects", "columns" })
+	public String layout;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+		public double bytesPerLocation;
+	}
+
+	@Benchmark
+	public void fill(Footprint footprint) {
+		int userCount = TOTAL_LOCATIONS / locationCount;
+		SplittableRandom random = new SplittableRandom(3);
+		long before = usedHeap();
+		Object[] histories = new Object[userCount];
+		for (int i = 0; i < userCount; i++) {
+			UUID userId = UUID.randomUUID();
+			histories[i] = "objects".equals(layout) ? objects(userId, random) : columns(userId, random);
+		}
+		long after = usedHeap();
+		footprint.bytesPerLocation = (double) (after - before) / TOTAL_LOCATIONS;
+		Reference.reachabilityFence(histories);
+	}
+
+	private List<VisitedLocation> objects(UUID userId, SplittableRandom random) {
+		ArrayList<VisitedLocation> visitedLocations = new ArrayList<>();
+		for (int k = 0; k < locationCount; k++) {
+			visitedLocations.add(visitedLocation(userId, random));
+		}
+		visitedLocations.trimToSize();
+		return visitedLocations;
+	}
+
+	private VisitedLocationHistory columns(UUID userId, SplittableRandom random) {
+		VisitedLocationHistory history = new VisitedLocationHistory(userId, locationCount);
+		for (int k = 0; k < locationCount; k++) {
+			history.append(visitedLocation(userId, random));
+		}
+		return history;
+	}
+
+	private static VisitedLocation visitedLocation(UUID userId, SplittableRandom random) {
+		return new VisitedLocation(userId, BenchmarkLocations.random(random), new Date());
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,60 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.service.RewardsService;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Cost of {@link RewardsService#find5NearestAttraction(Location, List)} for a
+ * growing number of attractions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NearestAttractionBenchmark {
+
+	@Param({ "26", "1000", "10000", "50000" })
+	public int attractionCount;
+
+	private RewardsService rewardsService;
+	private List<Attraction> attractions;
+	private SplittableRandom random;
+
+	@Setup
+	public void setUp() {
+		LocationProvider locationProvider = new SimulatedLocationProvider(attractionCount, 1, LatencyModel.none());
+		rewardsService = RewardsService
+				.builder(locationProvider, new SimulatedRewardPointsProvider(1, LatencyModel.none())).build();
+		attractions = locationProvider.getAttractions();
+		random = new SplittableRandom(3);
+	}
+
+	@Benchmark
+	public List<Attraction> find5NearestAttraction() {
+		return rewardsService.find5NearestAttraction(BenchmarkLocations.random(random), attractions);
+	}
+}
@@ -0,0 +1,110 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Cost of one reward cycle: every user visits a new location, half of them
+ * next to an attraction, then the rewards of all of them are calculated, one
+ * {@link RewardsService#calculateRewards(User)} per user or in one
+ * {@link RewardsService#calculateRewards(List)} batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RewardsBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int userCount;
+
+	@Param({ "26", "1000", "10000" })
+	public int attractionCount;
+
+	private RewardsService rewardsService;
+	private List<Attraction> attractions;
+	private List<User> users;
+	private SplittableRandom random;
+
+	@Setup
+	public void setUp() {
+		LocationProvider locationProvider = new SimulatedLocationProvider(attractionCount, 1, LatencyModel.none());
+		rewardsService = RewardsService
+				.builder(locationProvider, new SimulatedRewardPointsProvider(1, LatencyModel.none())).build();
+		attractions = locationProvider.getAttractions();
+	}
+
+	/*
+	 * New users on every iteration, who would otherwise be rewarded for almost
+	 * every attraction after a few iterations.
+	 */
+	@Setup(Level.Iteration)
+	public void setUpUsers() {
+		random = new SplittableRandom(5);
+		users = new ArrayList<>(userCount);
+		for (int i = 0; i < userCount; i++) {
+			users.add(new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com"));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		rewardsService.shutdown();
+	}
+
+	@Benchmark
+	public void calculateRewards() {
+		List<CompletableFuture<Void>> futures = new ArrayList<>(userCount);
+		for (User user : users) {
+			visitNewLocation(user);
+			futures.add(rewardsService.calculateRewards(user));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+	}
+
+	@Benchmark
+	public void calculateRewardsInBatch() {
+		for (User user : users) {
+			visitNewLocation(user);
+		}
+		rewardsService.calculateRewards(users).join();
+	}
+
+	private void visitNewLocation(User user) {
+		boolean nearAttraction = random.nextBoolean();
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
+				nearAttraction ? attractions.get(random.nextInt(attractions.size())) : BenchmarkLocations.random(random),
+				new Date()));
+	}
+}
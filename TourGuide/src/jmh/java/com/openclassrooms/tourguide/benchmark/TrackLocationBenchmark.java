@@ -0,0 +1,76 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Cost of one tracking cycle: {@link TourGuideService#trackUserLocation(User)}
+ * for every internal user, awaited together.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrackLocationBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int userCount;
+
+	@Param({ "26", "1000" })
+	public int attractionCount;
+
+	private RewardsService rewardsService;
+	private TourGuideService tourGuideService;
+	private List<User> users;
+
+	@Setup
+	public void setUp() {
+		LocationProvider locationProvider = new SimulatedLocationProvider(attractionCount, 1, LatencyModel.none());
+		rewardsService = RewardsService
+				.builder(locationProvider, new SimulatedRewardPointsProvider(1, LatencyModel.none())).build();
+		InternalTestHelper.setInternalUserNumber(userCount);
+		tourGuideService = TourGuideService.builder(locationProvider, rewardsService).build();
+		tourGuideService.tracker.stopTracking();
+		users = tourGuideService.getAllUsers();
+	}
+
+	@TearDown
+	public void tearDown() {
+		tourGuideService.shutdown();
+		rewardsService.shutdown();
+	}
+
+	@Benchmark
+	public void trackUserLocation() {
+		List<CompletableFuture<VisitedLocation>> futures = users.stream().map(tourGuideService::trackUserLocation)
+				.toList();
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+	}
+}
@@ -0,0 +1,65 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Cost of filling the rewards of a new user with {@link User#addUserReward},
+ * every attraction being offered twice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UserRewardBenchmark {
+
+	@Param({ "26", "1000", "10000" })
+	public int attractionCount;
+
+	private UserReward[] rewards;
+
+	@Setup
+	public void setUp() {
+		List<Attraction> attractions = new SimulatedLocationProvider(attractionCount, 11, LatencyModel.none())
+				.getAttractions();
+		UUID userId = UUID.randomUUID();
+		rewards = new UserReward[attractionCount * 2];
+		for (int i = 0; i < rewards.length; i++) {
+			Attraction attraction = attractions.get(i % attractionCount);
+			rewards[i] = new UserReward(new VisitedLocation(userId, attraction, new Date()), attraction, i);
+		}
+	}
+
+	@Benchmark
+	public User addUserReward() {
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		for (UserReward reward : rewards) {
+			user.addUserReward(reward);
+		}
+		return user;
+	}
+}
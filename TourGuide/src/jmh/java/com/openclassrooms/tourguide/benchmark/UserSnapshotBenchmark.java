@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.repository.UserSnapshotStore;
+
+/**
+ * Startup cost of the users: generating the internal users from scratch, as
+ * {@link InternalUserGenerator} does, against restoring the same users from a
+ * {@link UserSnapshotStore} snapshot, and the cost of writing it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserSnapshotBenchmark {
+
+	@Param({ "10000", "100000" })
+	public int userCount;
+
+	private Path directory;
+	private UserSnapshotStore store;
+	private InMemoryUserRepository users;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("user-snapshot");
+		store = new UserSnapshotStore(directory.resolve("users.snapshot"));
+		users = new InMemoryUserRepository(userCount);
+		new InternalUserGenerator(42).generate(userCount, users);
+		store.write(users.findAll());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(store.getFile());
+		Files.deleteIfExists(directory);
+	}
+
+	@Benchmark
+	public UserRepository generate() {
+		InMemoryUserRepository userRepository = new InMemoryUserRepository(userCount);
+		new InternalUserGenerator(42).generate(userCount, userRepository);
+		return userRepository;
+	}
+
+	@Benchmark
+	public UserRepository restore() throws IOException {
+		InMemoryUserRepository userRepository = new InMemoryUserRepository(userCount);
+		store.read(userRepository, name -> null);
+		return userRepository;
+	}
+
+	@Benchmark
+	public int write() throws IOException {
+		return store.write(users.findAll());
+	}
+}
@@ -0,0 +1,48 @@
+package com.openclassrooms.tourguide;
+
+import java.time.Instant;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.attraction.AttractionCatalog;
+
+/**
+ * Actuator endpoint showing the state of the {@link AttractionCatalog}, at
+ * {@code GET /actuator/attractions}, and refreshing it on demand, with
+ * {@code POST /actuator/attractions}.
+ */
+@Component
+@Endpoint(id = "attractions")
+public class AttractionCatalogEndpoint {
+
+	private final AttractionCatalog attractionCatalog;
+
+	public AttractionCatalogEndpoint(AttractionCatalog attractionCatalog) {
+		this.attractionCatalog = attractionCatalog;
+	}
+
+	/**
+	 * @param attractionCount the number of attractions
+	 * @param version         the version of the snapshot
+	 * @param loadedAt        the time the snapshot was loaded
+	 */
+	public record CatalogState(int attractionCount, long version, Instant loadedAt) {
+
+		static CatalogState of(AttractionCatalog.Snapshot snapshot) {
+			return new CatalogState(snapshot.attractions().size(), snapshot.version(), snapshot.loadedAt());
+		}
+	}
+
+	@ReadOperation
+	public CatalogState state() {
+		return CatalogState.of(attractionCatalog.getSnapshot());
+	}
+
+	@WriteOperation
+	public CatalogState refresh() {
+		return CatalogState.of(attractionCatalog.refresh());
+	}
+}
@@ -1,12 +1,33 @@
 package com.openclassrooms.tourguide;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.tourguide.dto.BulkResultDto;
 import com.openclassrooms.tourguide.dto.NearByAttractionDto;
+import com.openclassrooms.tourguide.dto.UserLocationDto;
+import com.openclassrooms.tourguide.service.BulkQueryService;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
@@ -14,18 +35,30 @@ import com.openclassrooms.tourguide.user.UserReward;
 
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import tripPricer.Provider;
 
 @RestController
 public class TourGuideController {
+	public static final int MAX_BULK_USERS = 10_000;
+	public static final int MAX_HISTORY_PAGE_SIZE = 1000;
 
 	private final TourGuideService tourGuideService;
 	private final RewardsService rewardsService;
+	private final BulkQueryService bulkQueryService;
+	private final ObjectMapper objectMapper;
 
-	public TourGuideController(TourGuideService tourGuideService, RewardsService rewardsService) {
+	public TourGuideController(TourGuideService tourGuideService, RewardsService rewardsService,
+			BulkQueryService bulkQueryService, ObjectMapper objectMapper) {
 		super();
 		this.tourGuideService = tourGuideService;
 		this.rewardsService = rewardsService;
+		this.bulkQueryService = bulkQueryService;
+		this.objectMapper = objectMapper;
 	}
 
 	@GetMapping("/")
@@ -38,6 +71,23 @@ public class TourGuideController {
 		return tourGuideService.getUserLocation(getUser(userName));
 	}
 
+	/**
+	 * Retrieves a page of the visited locations of the specified user, oldest
+	 * first.
+	 *
+	 * @param userName the username of the user
+	 * @param page     the number of the page, from 0
+	 * @param size     the number of locations per page, at most
+	 *                 {@value #MAX_HISTORY_PAGE_SIZE}, 100 by default
+	 * @return the {@link VisitedLocation} of the page, empty past the last one
+	 */
+	@GetMapping("/getLocationHistory")
+	public List<VisitedLocation> getLocationHistory(@RequestParam String userName,
+			@RequestParam(defaultValue = "0") @PositiveOrZero int page,
+			@RequestParam(defaultValue = "100") @Positive @Max(MAX_HISTORY_PAGE_SIZE) int size) {
+		return tourGuideService.getVisitedLocations(getUser(userName), page, size);
+	}
+
 	// Instead: Get the closest five tourist attractions to the user - no matter how
 	// far away they are.
 	// Return a new JSON object that contains:
@@ -57,14 +107,16 @@ public class TourGuideController {
 	 * and the reward points.
 	 *
 	 * @param userName the username of the user
+	 * @param limit    the maximum number of attractions to return, 5 by default
 	 * @return a list of {@link NearByAttractionDto} objects representing nearby
 	 *         attractions
 	 */
 	@GetMapping("/getNearbyAttractions")
-	public List<NearByAttractionDto> getNearbyAttractions(@RequestParam String userName) {
-		VisitedLocation visitedLocation = tourGuideService.getUserLocation(getUser(userName));
-		List<Attraction> attractions = tourGuideService.getNearByAttractions(visitedLocation);
+	public List<NearByAttractionDto> getNearbyAttractions(@RequestParam String userName,
+			@RequestParam(defaultValue = "5") @Positive int limit) {
 		User user = getUser(userName);
+		VisitedLocation visitedLocation = tourGuideService.getUserLocation(user);
+		List<Attraction> attractions = tourGuideService.getNearByAttractions(visitedLocation, limit);
 		return rewardsService.buildNearByAttractionDTO(visitedLocation, attractions, user);
 	}
 
@@ -73,9 +125,125 @@ public class TourGuideController {
 		return tourGuideService.getUserRewards(getUser(userName));
 	}
 
+	/**
+	 * Retrieves the trip deals of the specified user without blocking the request
+	 * thread while the providers are priced.
+	 *
+	 * @param userName the username of the user
+	 * @return a {@link CompletableFuture} of the list of {@link Provider}
+	 */
 	@GetMapping("/getTripDeals")
-	public List<Provider> getTripDeals(@RequestParam String userName) {
-		return tourGuideService.getTripDeals(getUser(userName));
+	public CompletableFuture<List<Provider>> getTripDeals(@RequestParam String userName) {
+		return tourGuideService.getTripDealsAsync(getUser(userName));
+	}
+
+	/**
+	 * Answers 503 Service Unavailable when an executor refuses a request, the trip
+	 * pricing executor being saturated or the application shutting down, rather
+	 * than a 500.
+	 *
+	 * @param e the rejection
+	 * @return the problem detail of the response
+	 */
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ProblemDetail handleRejectedExecution(RejectedExecutionException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+				"Too many requests in progress, retry later");
+	}
+
+	/**
+	 * Retrieves the locations of many users in one response.
+	 * <p>
+	 * The response is streamed as newline-delimited JSON, one
+	 * {@link BulkResultDto} per user name in completion order, the users being
+	 * located concurrently with a bounded parallelism.
+	 *
+	 * @param userNames the usernames of the users, at most
+	 *                  {@value #MAX_BULK_USERS}
+	 * @return the streamed {@link VisitedLocation} of each user
+	 */
+	@PostMapping(value = "/bulk/getLocation", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public StreamingResponseBody getBulkLocations(
+			@RequestBody @NotEmpty @Size(max = MAX_BULK_USERS) List<String> userNames) {
+		return streamBulk(userNames, tourGuideService::getUserLocationAsync);
+	}
+
+	/**
+	 * Retrieves the nearby attractions of many users in one response, streamed
+	 * like {@link #getBulkLocations}.
+	 *
+	 * @param userNames the usernames of the users, at most
+	 *                  {@value #MAX_BULK_USERS}
+	 * @param limit     the maximum number of attractions per user, 5 by default
+	 * @return the streamed list of {@link NearByAttractionDto} of each user
+	 */
+	@PostMapping(value = "/bulk/getNearbyAttractions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public StreamingResponseBody getBulkNearbyAttractions(
+			@RequestBody @NotEmpty @Size(max = MAX_BULK_USERS) List<String> userNames,
+			@RequestParam(defaultValue = "5") @Positive int limit) {
+		return streamBulk(userNames, user -> tourGuideService.getNearByAttractionsAsync(user, limit));
+	}
+
+	/**
+	 * Retrieves the rewards of many users in one response, streamed like
+	 * {@link #getBulkLocations}.
+	 *
+	 * @param userNames the usernames of the users, at most
+	 *                  {@value #MAX_BULK_USERS}
+	 * @return the streamed list of {@link UserReward} of each user
+	 */
+	@PostMapping(value = "/bulk/getRewards", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public StreamingResponseBody getBulkRewards(
+			@RequestBody @NotEmpty @Size(max = MAX_BULK_USERS) List<String> userNames) {
+		return streamBulk(userNames, user -> CompletableFuture.completedFuture(tourGuideService.getUserRewards(user)));
+	}
+
+	/**
+	 * Exports the current location of every user.
+	 * <p>
+	 * The response is streamed as newline-delimited JSON, one
+	 * {@link UserLocationDto} per located user, written as the users are read from
+	 * the store so that memory use does not depend on the number of users.
+	 *
+	 * @return the streamed locations
+	 */
+	@GetMapping(value = "/getAllCurrentLocations", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public StreamingResponseBody getAllCurrentLocations() {
+		return outputStream -> {
+			try (Stream<UserLocationDto> locations = tourGuideService.streamCurrentLocations();
+					JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				generator.setRootValueSeparator(null);
+				Iterator<UserLocationDto> iterator = locations.iterator();
+				while (iterator.hasNext()) {
+					generator.writeObject(iterator.next());
+					generator.writeRaw('\n');
+				}
+			}
+		};
+	}
+
+	private <T> StreamingResponseBody streamBulk(List<String> userNames, Function<User, CompletableFuture<T>> query) {
+		return outputStream -> {
+			try {
+				bulkQueryService.forEach(userNames, query, result -> writeLine(outputStream, result));
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while streaming the bulk response");
+			}
+		};
+	}
+
+	private void writeLine(OutputStream outputStream, Object line) {
+		try {
+			outputStream.write(objectMapper.writeValueAsBytes(line));
+			outputStream.write('\n');
+			outputStream.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	private User getUser(String userName) {
@@ -1,29 +1,198 @@
 package com.openclassrooms.tourguide;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.attraction.AttractionCatalog;
+import com.openclassrooms.tourguide.config.ExecutionStrategy;
+import com.openclassrooms.tourguide.config.ExecutorSettings;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.helper.InternalUserSettings;
+import com.openclassrooms.tourguide.metrics.MeteredLocationProvider;
+import com.openclassrooms.tourguide.metrics.MeteredRewardPointsProvider;
+import com.openclassrooms.tourguide.metrics.MeteredTripPricingProvider;
+import com.openclassrooms.tourguide.provider.GpsUtilLocationProvider;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.ProviderMode;
+import com.openclassrooms.tourguide.provider.RewardCentralPointsProvider;
+import com.openclassrooms.tourguide.provider.RewardPointsProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.provider.SimulatedTripPricingProvider;
+import com.openclassrooms.tourguide.provider.TripPricerPricingProvider;
+import com.openclassrooms.tourguide.provider.TripPricingProvider;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.LocationLog;
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.repository.UserSnapshotStore;
+import com.openclassrooms.tourguide.service.RewardPointsCache;
+import com.openclassrooms.tourguide.service.TripDealGateway;
+import com.openclassrooms.tourguide.service.UserSnapshotService;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
 
 import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import rewardCentral.RewardCentral;
+import tripPricer.TripPricer;
 
+@Slf4j
 @Configuration
 public class TourGuideModule {
 
 	@Bean
-	GpsUtil getGpsUtil() {
-		return new GpsUtil();
+	ExecutionStrategy getExecutionStrategy(@Value("${tourguide.execution.mode:fixed}") String mode) {
+		return ExecutionStrategy.fromMode(mode);
+	}
+
+	@Bean
+	@Qualifier("tourGuide")
+	ExecutorSettings getTourGuideExecutorSettings(
+			@Value("${tourguide.executors.tour-guide.pool-size:200}") int poolSize,
+			@Value("${tourguide.executors.tour-guide.queue-capacity:10000}") int queueCapacity,
+			@Value("${tourguide.executors.drain-timeout:PT30S}") Duration drainTimeout) {
+		return new ExecutorSettings(poolSize, queueCapacity, drainTimeout);
+	}
+
+	@Bean
+	@Qualifier("rewards")
+	ExecutorSettings getRewardsExecutorSettings(@Value("${tourguide.executors.rewards.pool-size:200}") int poolSize,
+			@Value("${tourguide.executors.rewards.queue-capacity:10000}") int queueCapacity,
+			@Value("${tourguide.executors.drain-timeout:PT30S}") Duration drainTimeout) {
+		return new ExecutorSettings(poolSize, queueCapacity, drainTimeout);
+	}
+
+	@Bean
+	ProviderMode getProviderMode(@Value("${tourguide.providers.mode:library}") String mode) {
+		return ProviderMode.fromMode(mode);
+	}
+
+	@Bean
+	LocationProvider getLocationProvider(ProviderMode providerMode,
+			@Value("${tourguide.providers.simulated.seed:42}") long seed,
+			@Value("${tourguide.providers.simulated.attraction-count:26}") int attractionCount,
+			@Value("${tourguide.providers.simulated.location-latency:none}") String latency,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		LocationProvider locationProvider = providerMode == ProviderMode.SIMULATED
+				? new SimulatedLocationProvider(attractionCount, seed, LatencyModel.parse(latency))
+				: new GpsUtilLocationProvider(new GpsUtil());
+		MeterRegistry registry = meterRegistry.getIfAvailable();
+		return registry == null ? locationProvider : new MeteredLocationProvider(locationProvider, registry);
+	}
+
+	@Bean
+	RewardPointsProvider getRewardPointsProvider(ProviderMode providerMode,
+			@Value("${tourguide.providers.simulated.seed:42}") long seed,
+			@Value("${tourguide.providers.simulated.reward-latency:none}") String latency,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		RewardPointsProvider rewardPointsProvider = providerMode == ProviderMode.SIMULATED
+				? new SimulatedRewardPointsProvider(seed, LatencyModel.parse(latency))
+				: new RewardCentralPointsProvider(new RewardCentral());
+		MeterRegistry registry = meterRegistry.getIfAvailable();
+		return registry == null ? rewardPointsProvider
+				: new MeteredRewardPointsProvider(rewardPointsProvider, registry);
+	}
+
+	@Bean
+	TripPricingProvider getTripPricingProvider(ProviderMode providerMode,
+			@Value("${tourguide.providers.simulated.seed:42}") long seed,
+			@Value("${tourguide.providers.simulated.pricing-latency:none}") String latency,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		TripPricingProvider tripPricingProvider = providerMode == ProviderMode.SIMULATED
+				? new SimulatedTripPricingProvider(seed, LatencyModel.parse(latency))
+				: new TripPricerPricingProvider(new TripPricer());
+		MeterRegistry registry = meterRegistry.getIfAvailable();
+		return registry == null ? tripPricingProvider : new MeteredTripPricingProvider(tripPricingProvider, registry);
+	}
+
+	@Bean
+	RewardPointsCache getRewardPointsCache(RewardPointsProvider rewardPointsProvider,
+			@Value("${tourguide.rewards.cache.maximum-size:1000000}") long maximumSize,
+			@Value("${tourguide.rewards.cache.time-to-live:PT1H}") Duration timeToLive) {
+		return new RewardPointsCache(rewardPointsProvider, maximumSize, timeToLive);
+	}
+
+	@Bean
+	TripDealGateway getTripDealGateway(TripPricingProvider tripPricingProvider,
+			@Value("${tourguide.trip-deals.pool-size:20}") int poolSize,
+			@Value("${tourguide.trip-deals.queue-capacity:1000}") int queueCapacity,
+			@Value("${tourguide.trip-deals.time-to-live:PT10M}") Duration timeToLive) {
+		return new TripDealGateway(tripPricingProvider, poolSize, queueCapacity, timeToLive);
+	}
+
+	@Bean
+	TrackerSettings getTrackerSettings(@Value("${tourguide.tracker.interval:PT5M}") Duration interval,
+			@Value("${tourguide.tracker.max-interval:PT30M}") Duration maxInterval,
+			@Value("${tourguide.tracker.stationary-distance-miles:0.1}") double stationaryDistanceMiles,
+			@Value("${tourguide.tracker.max-concurrency:1000}") int maxConcurrency) {
+		return new TrackerSettings(interval, maxInterval, stationaryDistanceMiles, maxConcurrency);
+	}
+
+	@Bean
+	AttractionCatalog getAttractionCatalog(LocationProvider locationProvider,
+			@Value("${tourguide.attractions.refresh-interval:PT1H}") Duration refreshInterval) {
+		return new AttractionCatalog(locationProvider, refreshInterval);
+	}
+
+	@Bean
+	@ConditionalOnProperty("tourguide.snapshot.file")
+	UserSnapshotStore getUserSnapshotStore(@Value("${tourguide.snapshot.file}") Path file) {
+		return new UserSnapshotStore(file);
+	}
+
+	@Bean
+	@ConditionalOnProperty("tourguide.snapshot.file")
+	UserSnapshotService getUserSnapshotService(UserRepository userRepository, UserSnapshotStore userSnapshotStore,
+			@Value("${tourguide.snapshot.interval:PT5M}") Duration interval) {
+		return new UserSnapshotService(userRepository, userSnapshotStore, interval);
+	}
+
+	/*
+	 * Filled from the user snapshot when there is one, the internal users being
+	 * generated only into an empty repository.
+	 */
+	@Bean
+	UserRepository getUserRepository(ObjectProvider<UserSnapshotStore> userSnapshotStore,
+			AttractionCatalog attractionCatalog) throws IOException {
+		UserRepository userRepository = new InMemoryUserRepository(InternalTestHelper.getInternalUserNumber());
+		UserSnapshotStore store = userSnapshotStore.getIfAvailable();
+		if (store != null && store.exists()) {
+			Map<String, Attraction> attractions = attractionCatalog.getAttractions().stream()
+					.collect(Collectors.toMap(attraction -> attraction.attractionName, Function.identity(),
+							(first, second) -> first));
+			long start = System.nanoTime();
+			int count = store.read(userRepository, attractions::get);
+			log.info("Restored {} users from {} in {} ms", count, store.getFile(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+		return userRepository;
 	}
 
 	@Bean
-	RewardsService getRewardsService() {
-		return new RewardsService(getGpsUtil(), getRewardCentral());
+	@ConditionalOnProperty("tourguide.location-log.directory")
+	LocationLog getLocationLog(@Value("${tourguide.location-log.directory}") Path directory,
+			@Value("${tourguide.location-log.records-per-segment:1048576}") int recordsPerSegment) throws IOException {
+		return LocationLog.open(directory, recordsPerSegment);
 	}
 
 	@Bean
-	RewardCentral getRewardCentral() {
-		return new RewardCentral();
+	InternalUserSettings getInternalUserSettings(@Value("${tourguide.internal-users.seed:42}") long seed,
+			@Value("${tourguide.internal-users.background:false}") boolean background) {
+		return new InternalUserSettings(seed, background);
 	}
 
 }
@@ -0,0 +1,175 @@
+package com.openclassrooms.tourguide.attraction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.openclassrooms.tourguide.provider.LocationProvider;
+
+import gpsUtil.location.Attraction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Attractions shared by all the services, loaded once from the
+ * {@link LocationProvider} instead of on every reward calculation or nearby
+ * attraction request.
+ * <p>
+ * The attractions are held in an immutable {@link Snapshot} together with
+ * their {@link AttractionIndex}, replaced as a whole when the catalog is
+ * refreshed, so that readers never see a list and an index that do not match.
+ * A refresh returning the same attraction set keeps the current snapshot, and
+ * one that changes it keeps the current instances of the unchanged attractions,
+ * with their ids. The catalog can be refreshed on demand or every
+ * {@code refreshInterval}; a failed scheduled refresh keeps the current
+ * snapshot until the next one.
+ */
+@Slf4j
+public class AttractionCatalog implements MeterBinder {
+
+	private final LocationProvider locationProvider;
+	private final ScheduledExecutorService scheduler;
+	private volatile Snapshot snapshot;
+
+	/**
+	 * The attractions loaded by one refresh.
+	 *
+	 * @param attractions the immutable list of attractions
+	 * @param index       the spatial index of the attractions
+	 * @param version     the number of the snapshot, incremented when the
+	 *                    attraction set changes
+	 * @param loadedAt    the time the attractions were loaded
+	 */
+	public record Snapshot(List<Attraction> attractions, AttractionIndex index, long version, Instant loadedAt) {
+	}
+
+	/**
+	 * Creates a catalog refreshed on demand only.
+	 *
+	 * @param locationProvider the provider of the attractions
+	 */
+	public AttractionCatalog(LocationProvider locationProvider) {
+		this(locationProvider, Duration.ZERO);
+	}
+
+	/**
+	 * Creates a catalog, loading the attractions right away.
+	 *
+	 * @param locationProvider the provider of the attractions
+	 * @param refreshInterval  the delay between two scheduled refreshes, zero to
+	 *                         refresh on demand only
+	 */
+	public AttractionCatalog(LocationProvider locationProvider, Duration refreshInterval) {
+		if (refreshInterval.isNegative()) {
+			throw new IllegalArgumentException("Refresh interval must not be negative : " + refreshInterval);
+		}
+		this.locationProvider = locationProvider;
+		List<Attraction> attractions = List.copyOf(locationProvider.getAttractions());
+		this.snapshot = new Snapshot(attractions, AttractionIndex.of(attractions), 1, Instant.now());
+		if (refreshInterval.isZero()) {
+			this.scheduler = null;
+		} else {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(
+					runnable -> Thread.ofPlatform().daemon().name("attraction-catalog").unstarted(runnable));
+			long intervalMillis = refreshInterval.toMillis();
+			scheduler.scheduleWithFixedDelay(this::scheduledRefresh, intervalMillis, intervalMillis,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public List<Attraction> getAttractions() {
+		return snapshot.attractions();
+	}
+
+	public AttractionIndex getIndex() {
+		return snapshot.index();
+	}
+
+	/**
+	 * Reloads the attractions from the provider, replacing the snapshot if the
+	 * attraction set changed.
+	 *
+	 * @return the current snapshot after the refresh
+	 */
+	public synchronized Snapshot refresh() {
+		List<Attraction> attractions = locationProvider.getAttractions();
+		Snapshot current = snapshot;
+		if (current.index().isBuiltFrom(attractions)) {
+			return current;
+		}
+		List<Attraction> copy = keepUnchanged(current.attractions(), attractions);
+		Snapshot refreshed = new Snapshot(copy, AttractionIndex.of(copy), current.version() + 1, Instant.now());
+		snapshot = refreshed;
+		log.info("Attraction catalog refreshed to version {} with {} attractions", refreshed.version(), copy.size());
+		return refreshed;
+	}
+
+	/*
+	 * The fetched attractions, in their order, where each attraction with the
+	 * name and coordinates of a current one is replaced by the current instance.
+	 * Its id, random on every fetch, then stays the one the rewards and the
+	 * cached reward points were calculated with.
+	 */
+	private static List<Attraction> keepUnchanged(List<Attraction> current, List<Attraction> fetched) {
+		Map<AttractionKey, Attraction> currentByKey = new HashMap<>(current.size() * 2);
+		for (Attraction attraction : current) {
+			currentByKey.putIfAbsent(AttractionKey.of(attraction), attraction);
+		}
+		List<Attraction> attractions = new ArrayList<>(fetched.size());
+		for (Attraction attraction : fetched) {
+			attractions.add(currentByKey.getOrDefault(AttractionKey.of(attraction), attraction));
+		}
+		return List.copyOf(attractions);
+	}
+
+	private record AttractionKey(String attractionName, double latitude, double longitude) {
+
+		static AttractionKey of(Attraction attraction) {
+			return new AttractionKey(attraction.attractionName, attraction.latitude, attraction.longitude);
+		}
+	}
+
+	private void scheduledRefresh() {
+		try {
+			refresh();
+		} catch (RuntimeException e) {
+			log.warn("Attraction catalog refresh failed, keeping version {}", snapshot.version(), e);
+		}
+	}
+
+	/**
+	 * Registers gauges of the number of attractions and of the snapshot version.
+	 *
+	 * @param meterRegistry the registry to bind to
+	 */
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		Gauge.builder("tourguide.attractions", this, catalog -> catalog.snapshot.attractions().size())
+				.description("Number of attractions in the catalog").register(meterRegistry);
+		Gauge.builder("tourguide.attractions.version", this, catalog -> catalog.snapshot.version())
+				.description("Version of the attraction catalog snapshot").register(meterRegistry);
+	}
+
+	/**
+	 * Stops the scheduled refreshes.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+}
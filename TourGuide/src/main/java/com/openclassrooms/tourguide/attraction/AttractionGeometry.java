@@ -0,0 +1,234 @@
+package com.openclassrooms.tourguide.attraction;
+
+import java.util.Arrays;
+import java.util.List;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Immutable table of the trigonometry of a list of attractions, computed once
+ * since attraction coordinates never change.
+ * <p>
+ * For each attraction, in the order of the list, primitive arrays hold the
+ * latitude and longitude in radians, the sine and cosine of the latitude and
+ * the unit vector of the position. A distance then costs one cosine and one
+ * {@code acos} instead of four sines and cosines, and gives exactly the same
+ * result as {@link DistanceCalculator#getDistance}.
+ * <p>
+ * A within-radius check first rejects the pairs whose latitudes alone are too
+ * far apart, then compares the dot product of the unit vectors with the cosine
+ * of the radius, and only falls back to the exact formula when the pair lies
+ * too close to the boundary for the cheap tests to be trusted. The answer is
+ * always the one of {@code getDistance(...) < radiusMiles}. When every
+ * attraction has to be checked, the dot products are computed in one batch by
+ * a {@link DistanceKernel}.
+ */
+public final class AttractionGeometry {
+
+	/*
+	 * The dot product of the unit vectors and the law of cosines differ by a few
+	 * ulps, and acos amplifies rounding errors near 0 and pi: inside these
+	 * margins around the boundary the exact formula decides.
+	 */
+	private static final double DOT_MARGIN = 1e-9;
+	private static final double LATITUDE_MARGIN = 1e-7;
+
+	private final double[] latitudes;
+	private final double[] longitudes;
+	private final double[] sinLatitudes;
+	private final double[] cosLatitudes;
+	private final double[] x;
+	private final double[] y;
+	private final double[] z;
+	private final DistanceKernel kernel;
+
+	private AttractionGeometry(List<Attraction> attractions, DistanceKernel kernel) {
+		this.kernel = kernel;
+		int size = attractions.size();
+		latitudes = new double[size];
+		longitudes = new double[size];
+		sinLatitudes = new double[size];
+		cosLatitudes = new double[size];
+		x = new double[size];
+		y = new double[size];
+		z = new double[size];
+		for (int i = 0; i < size; i++) {
+			Attraction attraction = attractions.get(i);
+			latitudes[i] = Math.toRadians(attraction.latitude);
+			longitudes[i] = Math.toRadians(attraction.longitude);
+			sinLatitudes[i] = Math.sin(latitudes[i]);
+			cosLatitudes[i] = Math.cos(latitudes[i]);
+			x[i] = cosLatitudes[i] * Math.cos(longitudes[i]);
+			y[i] = cosLatitudes[i] * Math.sin(longitudes[i]);
+			z[i] = sinLatitudes[i];
+		}
+	}
+
+	/**
+	 * Computes the geometry of the given attractions.
+	 *
+	 * @param attractions the attractions
+	 * @return the geometry table, indexed like {@code attractions}
+	 */
+	public static AttractionGeometry of(List<Attraction> attractions) {
+		return of(attractions, DistanceKernel.selected());
+	}
+
+	/**
+	 * Computes the geometry of the given attractions.
+	 *
+	 * @param attractions the attractions
+	 * @param kernel      the kernel used by {@link #indexesWithin}
+	 * @return the geometry table, indexed like {@code attractions}
+	 */
+	public static AttractionGeometry of(List<Attraction> attractions, DistanceKernel kernel) {
+		return new AttractionGeometry(attractions, kernel);
+	}
+
+	public int size() {
+		return latitudes.length;
+	}
+
+	public DistanceKernel getKernel() {
+		return kernel;
+	}
+
+	/**
+	 * Computes the trigonometry of a location once, to compare it with many
+	 * attractions.
+	 *
+	 * @param location the location
+	 * @return the point to pass to {@link #distance}
+	 */
+	public static Point point(Location location) {
+		return new Point(location);
+	}
+
+	/**
+	 * Computes the trigonometry of a search circle once, to compare it with many
+	 * attractions.
+	 *
+	 * @param center      the center of the circle
+	 * @param radiusMiles the radius in statute miles
+	 * @return the circle to pass to {@link #isWithin}
+	 */
+	public static Circle circle(Location center, double radiusMiles) {
+		return new Circle(new Point(center), radiusMiles);
+	}
+
+	/**
+	 * Calculates the distance between an attraction and a location.
+	 *
+	 * @param index the position of the attraction in the list
+	 * @param point the location
+	 * @return the distance in statute miles, equal to the one of
+	 *         {@link DistanceCalculator#getDistance}
+	 */
+	public double distance(int index, Point point) {
+		double angle = DistanceCalculator.angleOf(sinLatitudes[index] * point.sinLatitude
+				+ cosLatitudes[index] * point.cosLatitude * Math.cos(longitudes[index] - point.longitude));
+		return DistanceCalculator.toMiles(angle);
+	}
+
+	/**
+	 * Tells whether an attraction is strictly inside a circle.
+	 *
+	 * @param index  the position of the attraction in the list
+	 * @param circle the circle
+	 * @return {@code distance(index, circle.center()) < circle.radiusMiles()}
+	 */
+	public boolean isWithin(int index, Circle circle) {
+		Point center = circle.center;
+		if (Math.abs(latitudes[index] - center.latitude) > circle.maxLatitudeGap) {
+			return false;
+		}
+		return isWithin(index, x[index] * center.x + y[index] * center.y + z[index] * center.z, circle);
+	}
+
+	/**
+	 * Returns the positions of the attractions strictly inside a circle, checking
+	 * all of them in one batch.
+	 *
+	 * @param circle the circle
+	 * @return the positions, in increasing order
+	 */
+	public int[] indexesWithin(Circle circle) {
+		int size = size();
+		Point center = circle.center;
+		double[] dots = new double[size];
+		kernel.dotProducts(x, y, z, center.x, center.y, center.z, dots, size);
+		int[] result = new int[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (isWithin(i, dots[i], circle)) {
+				result[count++] = i;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private boolean isWithin(int index, double dot, Circle circle) {
+		if (circle.bounded) {
+			if (dot < circle.cosRadius - DOT_MARGIN) {
+				return false;
+			}
+			if (dot > circle.cosRadius + DOT_MARGIN) {
+				return true;
+			}
+		}
+		return distance(index, circle.center) < circle.radiusMiles;
+	}
+
+	/**
+	 * Trigonometry of a location, computed once per query.
+	 */
+	public static final class Point {
+		private final double latitude;
+		private final double longitude;
+		private final double sinLatitude;
+		private final double cosLatitude;
+		private final double x;
+		private final double y;
+		private final double z;
+
+		private Point(Location location) {
+			latitude = Math.toRadians(location.latitude);
+			longitude = Math.toRadians(location.longitude);
+			sinLatitude = Math.sin(latitude);
+			cosLatitude = Math.cos(latitude);
+			x = cosLatitude * Math.cos(longitude);
+			y = cosLatitude * Math.sin(longitude);
+			z = sinLatitude;
+		}
+	}
+
+	/**
+	 * Trigonometry of a search circle, computed once per query.
+	 */
+	public static final class Circle {
+		private final Point center;
+		private final double radiusMiles;
+		private final double maxLatitudeGap;
+		private final double cosRadius;
+		// false when the circle covers the whole globe, the cosine being useless
+		private final boolean bounded;
+
+		private Circle(Point center, double radiusMiles) {
+			this.center = center;
+			this.radiusMiles = radiusMiles;
+			double radiusAngle = Math.toRadians(radiusMiles / DistanceCalculator.STATUTE_MILES_PER_DEGREE);
+			this.maxLatitudeGap = radiusAngle + LATITUDE_MARGIN;
+			this.cosRadius = Math.cos(radiusAngle);
+			this.bounded = radiusAngle < Math.PI;
+		}
+
+		public Point center() {
+			return center;
+		}
+
+		public double radiusMiles() {
+			return radiusMiles;
+		}
+	}
+}
@@ -0,0 +1,336 @@
+package com.openclassrooms.tourguide.attraction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+/**
+ * Immutable spatial index over a list of attractions.
+ * <p>
+ * Attractions are bucketed into a latitude/longitude grid. A proximity query
+ * only visits the cells overlapping the bounding box of the search circle and
+ * confirms each candidate against the {@link AttractionGeometry} of the
+ * attractions, computed once with the index, which agrees exactly with
+ * {@link DistanceCalculator#getDistance}. The result is therefore the one a
+ * brute-force scan of the list would return, in the same order.
+ */
+public final class AttractionIndex {
+	public static final double DEFAULT_CELL_SIZE_DEGREES = 1.0;
+
+	// extra degrees added around the bounding box to absorb rounding in acos
+	private static final double BOUNDING_BOX_MARGIN_DEGREES = 1e-3;
+
+	private final List<Attraction> attractions;
+	private final AttractionGeometry geometry;
+	private final double cellSizeDegrees;
+	private final int rows;
+	private final int columns;
+	private final Map<Integer, int[]> cells;
+
+	private AttractionIndex(List<Attraction> attractions, double cellSizeDegrees) {
+		this.attractions = List.copyOf(attractions);
+		this.geometry = AttractionGeometry.of(this.attractions);
+		this.cellSizeDegrees = cellSizeDegrees;
+		this.rows = (int) Math.ceil(180 / cellSizeDegrees);
+		this.columns = (int) Math.ceil(360 / cellSizeDegrees);
+		this.cells = buildCells();
+	}
+
+	/**
+	 * Builds an index over the given attractions with the default cell size.
+	 *
+	 * @param attractions the attractions to index
+	 * @return the index
+	 */
+	public static AttractionIndex of(List<Attraction> attractions) {
+		return of(attractions, DEFAULT_CELL_SIZE_DEGREES);
+	}
+
+	/**
+	 * Builds an index over the given attractions.
+	 *
+	 * @param attractions     the attractions to index
+	 * @param cellSizeDegrees the side of a grid cell, in degrees
+	 * @return the index
+	 */
+	public static AttractionIndex of(List<Attraction> attractions, double cellSizeDegrees) {
+		if (!(cellSizeDegrees > 0 && cellSizeDegrees <= 180)) {
+			throw new IllegalArgumentException("Cell size must be in ]0, 180] degrees : " + cellSizeDegrees);
+		}
+		return new AttractionIndex(attractions, cellSizeDegrees);
+	}
+
+	public List<Attraction> getAttractions() {
+		return attractions;
+	}
+
+	public int size() {
+		return attractions.size();
+	}
+
+	/**
+	 * @return the precomputed trigonometry of the attractions, indexed like
+	 *         {@link #getAttractions()}
+	 */
+	public AttractionGeometry getGeometry() {
+		return geometry;
+	}
+
+	/**
+	 * Tells whether this index was built from the same attraction set, comparing
+	 * names and coordinates in order.
+	 *
+	 * @param other the attraction list to compare with
+	 * @return true if the index can be reused for {@code other}
+	 */
+	public boolean isBuiltFrom(List<Attraction> other) {
+		if (other == attractions) {
+			return true;
+		}
+		if (other.size() != attractions.size()) {
+			return false;
+		}
+		for (int i = 0; i < attractions.size(); i++) {
+			Attraction mine = attractions.get(i);
+			Attraction theirs = other.get(i);
+			if (mine != theirs && (!mine.attractionName.equals(theirs.attractionName)
+					|| mine.latitude != theirs.latitude || mine.longitude != theirs.longitude)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the attractions strictly closer than {@code radiusMiles} to the
+	 * given location, in the order of the indexed list.
+	 *
+	 * @param location    the center of the search
+	 * @param radiusMiles the search radius in statute miles
+	 * @return the matching attractions
+	 */
+	public List<Attraction> findWithin(Location location, double radiusMiles) {
+		int[] indexes = indexesWithin(location, radiusMiles);
+		List<Attraction> result = new ArrayList<>(indexes.length);
+		for (int i : indexes) {
+			result.add(attractions.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the positions in the indexed list of the attractions strictly
+	 * closer than {@code radiusMiles} to the given location.
+	 *
+	 * @param location    the center of the search
+	 * @param radiusMiles the search radius in statute miles
+	 * @return the positions, in increasing order
+	 */
+	public int[] indexesWithin(Location location, double radiusMiles) {
+		int[] candidates = candidateIndexes(location, radiusMiles);
+		AttractionGeometry.Circle circle = AttractionGeometry.circle(location, radiusMiles);
+		if (candidates.length == attractions.size()) {
+			return geometry.indexesWithin(circle);
+		}
+		int[] result = new int[candidates.length];
+		int count = 0;
+		for (int i : candidates) {
+			if (geometry.isWithin(i, circle)) {
+				result[count++] = i;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Returns the {@code limit} attractions closest to the given location, sorted
+	 * by distance, ties being kept in the order of the indexed list.
+	 * <p>
+	 * The search radius starts at one grid cell and doubles until enough
+	 * attractions are found inside it, then only those are ranked with a bounded
+	 * heap instead of sorting the whole list.
+	 *
+	 * @param location the reference location
+	 * @param limit    the maximum number of attractions to return
+	 * @return the nearest attractions, closest first
+	 */
+	public List<Attraction> findNearest(Location location, int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Limit must be positive : " + limit);
+		}
+		int wanted = Math.min(limit, attractions.size());
+		if (wanted == 0) {
+			return List.of();
+		}
+
+		AttractionGeometry.Point point = AttractionGeometry.point(location);
+		double radiusMiles = cellSizeDegrees * DistanceCalculator.STATUTE_MILES_PER_DEGREE;
+		while (true) {
+			boolean wholeGlobe = radiusMiles >= 180 * DistanceCalculator.STATUTE_MILES_PER_DEGREE;
+			int[] candidates = wholeGlobe ? allIndexes() : candidateIndexes(location, radiusMiles);
+			if (candidates.length >= wanted) {
+				double[] distances = new double[candidates.length];
+				int inside = 0;
+				for (int i = 0; i < candidates.length; i++) {
+					distances[i] = geometry.distance(candidates[i], point);
+					if (wholeGlobe || distances[i] < radiusMiles) {
+						inside++;
+					}
+				}
+				// every attraction outside the candidates is at least radiusMiles away
+				if (inside >= wanted) {
+					return selectNearest(candidates, distances, wholeGlobe ? Double.NaN : radiusMiles, wanted);
+				}
+			}
+			radiusMiles *= 2;
+		}
+	}
+
+	/*
+	 * A NaN radius keeps every candidate.
+	 */
+	private List<Attraction> selectNearest(int[] candidates, double[] distances, double radiusMiles, int limit) {
+		// max-heap on (distance, position) holding the best candidates seen so far
+		PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1,
+				(a, b) -> distances[a] != distances[b] ? Double.compare(distances[b], distances[a])
+						: Integer.compare(b, a));
+		for (int i = 0; i < candidates.length; i++) {
+			if (Double.isNaN(radiusMiles) || distances[i] < radiusMiles) {
+				heap.add(i);
+				if (heap.size() > limit) {
+					heap.poll();
+				}
+			}
+		}
+		Attraction[] result = new Attraction[heap.size()];
+		for (int i = result.length - 1; i >= 0; i--) {
+			result[i] = attractions.get(candidates[heap.poll()]);
+		}
+		return List.of(result);
+	}
+
+	private int[] candidateIndexes(Location location, double radiusMiles) {
+		double radiusDegrees = radiusMiles / DistanceCalculator.STATUTE_MILES_PER_DEGREE + BOUNDING_BOX_MARGIN_DEGREES;
+		if (!(radiusDegrees < 90)) {
+			return allIndexes();
+		}
+
+		double minLatitude = location.latitude - radiusDegrees;
+		double maxLatitude = location.latitude + radiusDegrees;
+		double halfWidth = longitudeHalfWidth(location.latitude, radiusDegrees, minLatitude, maxLatitude);
+
+		int rowFrom = rowOf(minLatitude);
+		int rowTo = rowOf(maxLatitude);
+		int[][] columnRanges = columnRanges(normalizeLongitude(location.longitude), halfWidth);
+
+		long cellCount = (long) (rowTo - rowFrom + 1)
+				* Arrays.stream(columnRanges).mapToInt(range -> range[1] - range[0] + 1).sum();
+		if (cellCount >= attractions.size()) {
+			return allIndexes();
+		}
+
+		int[] buffer = new int[Math.min(attractions.size(), 16)];
+		int count = 0;
+		for (int row = rowFrom; row <= rowTo; row++) {
+			for (int[] range : columnRanges) {
+				for (int column = range[0]; column <= range[1]; column++) {
+					int[] cell = cells.get(row * columns + column);
+					if (cell == null) {
+						continue;
+					}
+					if (count + cell.length > buffer.length) {
+						buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + cell.length));
+					}
+					System.arraycopy(cell, 0, buffer, count, cell.length);
+					count += cell.length;
+				}
+			}
+		}
+		int[] result = Arrays.copyOf(buffer, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/*
+	 * Half width in longitude of the bounding box of a spherical cap, or 180 when
+	 * the cap contains a pole.
+	 */
+	private static double longitudeHalfWidth(double latitude, double radiusDegrees, double minLatitude,
+			double maxLatitude) {
+		if (minLatitude <= -90 || maxLatitude >= 90) {
+			return 180;
+		}
+		double ratio = Math.sin(Math.toRadians(radiusDegrees)) / Math.cos(Math.toRadians(latitude));
+		if (ratio >= 1) {
+			return 180;
+		}
+		return Math.toDegrees(Math.asin(ratio)) + BOUNDING_BOX_MARGIN_DEGREES;
+	}
+
+	private int[][] columnRanges(double longitude, double halfWidth) {
+		double minLongitude = longitude - halfWidth;
+		double maxLongitude = longitude + halfWidth;
+		if (maxLongitude - minLongitude >= 360) {
+			return new int[][] { { 0, columns - 1 } };
+		}
+		if (minLongitude < -180) {
+			return new int[][] { { columnOf(minLongitude + 360), columns - 1 }, { 0, columnOf(maxLongitude) } };
+		}
+		if (maxLongitude >= 180) {
+			return new int[][] { { columnOf(minLongitude), columns - 1 }, { 0, columnOf(maxLongitude - 360) } };
+		}
+		return new int[][] { { columnOf(minLongitude), columnOf(maxLongitude) } };
+	}
+
+	private Map<Integer, int[]> buildCells() {
+		Map<Integer, List<Integer>> buckets = new HashMap<>();
+		for (int i = 0; i < attractions.size(); i++) {
+			Attraction attraction = attractions.get(i);
+			buckets.computeIfAbsent(cellOf(attraction), key -> new ArrayList<>()).add(i);
+		}
+		Map<Integer, int[]> result = new HashMap<>(buckets.size() * 2);
+		buckets.forEach((key, indexes) -> result.put(key, indexes.stream().mapToInt(Integer::intValue).toArray()));
+		return Map.copyOf(result);
+	}
+
+	/**
+	 * Returns the grid cell of a location, locations close to each other having
+	 * the same cell or cells close to each other in the same row.
+	 *
+	 * @param location the location
+	 * @return the cell number, row by row from the south-west corner
+	 */
+	public int cellOf(Location location) {
+		return rowOf(location.latitude) * columns + columnOf(normalizeLongitude(location.longitude));
+	}
+
+	private int rowOf(double latitude) {
+		int row = (int) Math.floor((latitude + 90) / cellSizeDegrees);
+		return Math.max(0, Math.min(rows - 1, row));
+	}
+
+	private int columnOf(double longitude) {
+		int column = (int) Math.floor((longitude + 180) / cellSizeDegrees);
+		return Math.max(0, Math.min(columns - 1, column));
+	}
+
+	private static double normalizeLongitude(double longitude) {
+		double normalized = (longitude + 180) % 360;
+		if (normalized < 0) {
+			normalized += 360;
+		}
+		return normalized - 180;
+	}
+
+	private int[] allIndexes() {
+		int[] result = new int[attractions.size()];
+		Arrays.setAll(result, i -> i);
+		return result;
+	}
+}
@@ -0,0 +1,63 @@
+package com.openclassrooms.tourguide.attraction;
+
+import gpsUtil.location.Location;
+
+/**
+ * Great-circle distance helper shared by the services and the attraction
+ * index, so that every proximity check uses exactly the same formula.
+ */
+public final class DistanceCalculator {
+
+	public static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+	/** Statute miles covered by one degree of arc on the earth's surface. */
+	public static final double STATUTE_MILES_PER_DEGREE = 60 * STATUTE_MILES_PER_NAUTICAL_MILE;
+
+	private DistanceCalculator() {
+		super();
+	}
+
+	/**
+	 * Calculates the distance in statute miles between two geographic locations
+	 * using the spherical law of cosines.
+	 *
+	 * @param loc1 the first location
+	 * @param loc2 the second location
+	 * @return the distance in statute miles
+	 */
+	public static double getDistance(Location loc1, Location loc2) {
+		double lat1 = Math.toRadians(loc1.latitude);
+		double lon1 = Math.toRadians(loc1.longitude);
+		double lat2 = Math.toRadians(loc2.latitude);
+		double lon2 = Math.toRadians(loc2.longitude);
+
+		double angle = angleOf(
+				Math.sin(lat1) * Math.sin(lat2) + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
+
+		return toMiles(angle);
+	}
+
+	/**
+	 * Returns the angle matching a cosine computed with the spherical law of
+	 * cosines, clamping the cosine into [-1, 1] first: rounding can push it just
+	 * out of range for identical or antipodal locations, where {@code acos} would
+	 * return NaN.
+	 *
+	 * @param cosine the cosine of the angle
+	 * @return the angle in radians
+	 */
+	static double angleOf(double cosine) {
+		return Math.acos(Math.max(-1, Math.min(1, cosine)));
+	}
+
+	/**
+	 * Converts an angle at the center of the earth to the length of the matching
+	 * arc on its surface.
+	 *
+	 * @param angle the angle in radians
+	 * @return the length in statute miles
+	 */
+	static double toMiles(double angle) {
+		double nauticalMiles = 60 * Math.toDegrees(angle);
+		return STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
+	}
+}
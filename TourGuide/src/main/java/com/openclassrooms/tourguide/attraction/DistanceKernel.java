@@ -0,0 +1,65 @@
+package com.openclassrooms.tourguide.attraction;
+
+/**
+ * Batch kernel computing, for one point, the dot products of its unit vector
+ * with the unit vectors of many attractions stored as structure of arrays,
+ * that is the cosines of the angles between the point and each attraction.
+ * <p>
+ * Two implementations give bit-identical results: a scalar loop, and a loop
+ * over the {@code jdk.incubator.vector} API that computes several lanes per
+ * instruction. The vector one is only available when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}; {@link #selected()} picks it at
+ * startup when it is, unless the {@code tourguide.distance.kernel} system
+ * property is set to {@code scalar}.
+ */
+public interface DistanceKernel {
+
+	/**
+	 * Computes {@code x[i] * px + y[i] * py + z[i] * pz} for each {@code i} in
+	 * {@code [0, length[}.
+	 *
+	 * @param x      the first coordinates of the attraction unit vectors
+	 * @param y      the second coordinates of the attraction unit vectors
+	 * @param z      the third coordinates of the attraction unit vectors
+	 * @param px     the first coordinate of the point unit vector
+	 * @param py     the second coordinate of the point unit vector
+	 * @param pz     the third coordinate of the point unit vector
+	 * @param result the array receiving the dot products
+	 * @param length the number of attractions
+	 */
+	void dotProducts(double[] x, double[] y, double[] z, double px, double py, double pz, double[] result,
+			int length);
+
+	/**
+	 * @return {@code scalar} or {@code vector}
+	 */
+	String name();
+
+	/**
+	 * @return the kernel selected at startup
+	 */
+	static DistanceKernel selected() {
+		return DistanceKernelSelection.SELECTED;
+	}
+
+	/**
+	 * @return the scalar kernel, always available
+	 */
+	static DistanceKernel scalar() {
+		return ScalarDistanceKernel.INSTANCE;
+	}
+
+	/**
+	 * @return the vector kernel
+	 * @throws UnsupportedOperationException if the {@code jdk.incubator.vector}
+	 *                                       module is not loaded
+	 */
+	static DistanceKernel vector() {
+		DistanceKernel kernel = DistanceKernelSelection.loadVectorKernel();
+		if (kernel == null) {
+			throw new UnsupportedOperationException(
+					"The vector kernel needs the JVM option --add-modules " + DistanceKernelSelection.VECTOR_MODULE);
+		}
+		return kernel;
+	}
+}
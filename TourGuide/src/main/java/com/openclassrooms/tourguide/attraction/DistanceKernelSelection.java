@@ -0,0 +1,43 @@
+package com.openclassrooms.tourguide.attraction;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Selects the {@link DistanceKernel} once, when first used.
+ */
+@Slf4j
+final class DistanceKernelSelection {
+	static final String VECTOR_MODULE = "jdk.incubator.vector";
+	static final String KERNEL_PROPERTY = "tourguide.distance.kernel";
+	static final DistanceKernel SELECTED = select();
+
+	private DistanceKernelSelection() {
+		super();
+	}
+
+	private static DistanceKernel select() {
+		DistanceKernel kernel = "scalar".equals(System.getProperty(KERNEL_PROPERTY)) ? null : loadVectorKernel();
+		if (kernel == null) {
+			kernel = ScalarDistanceKernel.INSTANCE;
+		}
+		log.debug("Using the {} distance kernel", kernel.name());
+		return kernel;
+	}
+
+	/*
+	 * Loaded reflectively so that the classes referencing the incubator module
+	 * are never linked when it is absent.
+	 */
+	static DistanceKernel loadVectorKernel() {
+		if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+			return null;
+		}
+		try {
+			return (DistanceKernel) Class.forName(DistanceKernel.class.getPackageName() + ".VectorDistanceKernel")
+					.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			log.warn("Vector distance kernel unavailable, falling back to the scalar one", e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.tourguide.attraction;
+
+/**
+ * Plain loop implementation of the {@link DistanceKernel}, used when the
+ * vector API is not available.
+ */
+final class ScalarDistanceKernel implements DistanceKernel {
+	static final ScalarDistanceKernel INSTANCE = new ScalarDistanceKernel();
+
+	private ScalarDistanceKernel() {
+		super();
+	}
+
+	@Override
+	public void dotProducts(double[] x, double[] y, double[] z, double px, double py, double pz, double[] result,
+			int length) {
+		dotProducts(x, y, z, px, py, pz, result, 0, length);
+	}
+
+	void dotProducts(double[] x, double[] y, double[] z, double px, double py, double pz, double[] result, int from,
+			int to) {
+		for (int i = from; i < to; i++) {
+			result[i] = x[i] * px + y[i] * py + z[i] * pz;
+		}
+	}
+
+	@Override
+	public String name() {
+		return "scalar";
+	}
+}
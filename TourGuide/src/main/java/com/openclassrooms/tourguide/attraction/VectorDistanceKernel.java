@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.attraction;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link DistanceKernel} computing as many dot products per iteration as the
+ * preferred vector shape of the CPU holds doubles, the tail being computed by
+ * the scalar loop.
+ * <p>
+ * Multiplications and additions are applied lane-wise in the same order as in
+ * the scalar kernel, without fused multiply-add, so both kernels give the same
+ * bits.
+ */
+final class VectorDistanceKernel implements DistanceKernel {
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	@Override
+	public void dotProducts(double[] x, double[] y, double[] z, double px, double py, double pz, double[] result,
+			int length) {
+		int bound = SPECIES.loopBound(length);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			DoubleVector dot = DoubleVector.fromArray(SPECIES, x, i).mul(px)
+					.add(DoubleVector.fromArray(SPECIES, y, i).mul(py))
+					.add(DoubleVector.fromArray(SPECIES, z, i).mul(pz));
+			dot.intoArray(result, i);
+		}
+		ScalarDistanceKernel.INSTANCE.dotProducts(x, y, z, px, py, pz, result, i, length);
+	}
+
+	@Override
+	public String name() {
+		return "vector";
+	}
+}
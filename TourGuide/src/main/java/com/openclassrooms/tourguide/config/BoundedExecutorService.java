@@ -0,0 +1,74 @@
+package com.openclassrooms.tourguide.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor limiting the number of tasks running at the same time on an
+ * unbounded delegate, such as a thread per task executor. A task submitted
+ * beyond the limit runs on the submitting thread, and a task submitted after a
+ * shutdown is rejected.
+ */
+class BoundedExecutorService extends AbstractExecutorService {
+	private final String name;
+	private final ExecutorService delegate;
+	private final Semaphore permits;
+
+	BoundedExecutorService(String name, ExecutorService delegate, int maxTasks) {
+		this.name = name;
+		this.delegate = delegate;
+		this.permits = new Semaphore(maxTasks);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		if (isShutdown()) {
+			throw new RejectedExecutionException("The " + name + " executor is shut down");
+		}
+		if (!permits.tryAcquire()) {
+			command.run();
+			return;
+		}
+		try {
+			delegate.execute(() -> {
+				try {
+					command.run();
+				} finally {
+					permits.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return delegate.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return delegate.awaitTermination(timeout, unit);
+	}
+}
@@ -0,0 +1,98 @@
+package com.openclassrooms.tourguide.config;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Strategy used by the services and the tracker to create the executors
+ * running their blocking calls to GpsUtil and RewardCentral.
+ * <p>
+ * Selected with the {@code tourguide.execution.mode} property: {@code fixed}
+ * for a fixed pool of platform threads, {@code virtual} for one virtual thread
+ * per task.
+ * <p>
+ * Both are bounded: once the queue of a fixed pool is full, or once as many
+ * tasks as the pool size plus the queue capacity run on virtual threads, the
+ * submitting thread runs the task itself. This slows the producers down instead
+ * of piling tasks up on the heap. Tasks submitted after a shutdown are
+ * rejected.
+ */
+public enum ExecutionStrategy {
+
+	FIXED_POOL("fixed") {
+		@Override
+		public ExecutorService newExecutor(String name, ExecutorSettings settings) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			ThreadFactory threadFactory = runnable -> new Thread(runnable,
+					name + "-" + threadNumber.incrementAndGet());
+			return new ThreadPoolExecutor(settings.poolSize(), settings.poolSize(), 0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(settings.queueCapacity()), threadFactory, callerRuns(name));
+		}
+	},
+
+	VIRTUAL_THREADS("virtual") {
+		@Override
+		public ExecutorService newExecutor(String name, ExecutorSettings settings) {
+			return new BoundedExecutorService(name,
+					Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory()),
+					settings.poolSize() + settings.queueCapacity());
+		}
+	};
+
+	private final String mode;
+
+	ExecutionStrategy(String mode) {
+		this.mode = mode;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	/**
+	 * Creates a new executor.
+	 *
+	 * @param name     the prefix of the thread names
+	 * @param settings the pool size and queue capacity
+	 * @return the executor
+	 */
+	public abstract ExecutorService newExecutor(String name, ExecutorSettings settings);
+
+	/**
+	 * Resolves the strategy matching a {@code tourguide.execution.mode} value.
+	 *
+	 * @param mode {@code fixed} or {@code virtual}, case insensitive
+	 * @return the matching strategy
+	 */
+	public static ExecutionStrategy fromMode(String mode) {
+		String normalizedMode = mode.trim().toLowerCase(Locale.ROOT);
+		for (ExecutionStrategy strategy : values()) {
+			if (strategy.mode.equals(normalizedMode)) {
+				return strategy;
+			}
+		}
+		throw new IllegalArgumentException("Unknown execution mode : " + mode);
+	}
+
+	/*
+	 * Unlike ThreadPoolExecutor.CallerRunsPolicy, rejects the tasks once the
+	 * executor is shut down instead of silently dropping them, which would leave
+	 * their futures incomplete forever.
+	 */
+	private static RejectedExecutionHandler callerRuns(String name) {
+		return (runnable, executor) -> {
+			if (executor.isShutdown()) {
+				throw new RejectedExecutionException("The " + name + " executor is shut down");
+			}
+			runnable.run();
+		};
+	}
+}
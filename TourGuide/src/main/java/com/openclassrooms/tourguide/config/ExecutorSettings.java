@@ -0,0 +1,56 @@
+package com.openclassrooms.tourguide.config;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizing of an executor created by an {@link ExecutionStrategy}.
+ *
+ * @param poolSize      the number of threads of a fixed pool
+ * @param queueCapacity the number of tasks waiting for a thread before the
+ *                      submitter has to run them itself
+ * @param drainTimeout  how long a shutdown waits for the submitted tasks to
+ *                      complete
+ */
+public record ExecutorSettings(int poolSize, int queueCapacity, Duration drainTimeout) {
+
+	public static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+	public static final ExecutorSettings DEFAULT = new ExecutorSettings(200, 10_000);
+
+	public ExecutorSettings {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("Pool size must be at least 1 : " + poolSize);
+		}
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("Queue capacity must be at least 1 : " + queueCapacity);
+		}
+		if (drainTimeout.isNegative()) {
+			throw new IllegalArgumentException("Drain timeout must not be negative : " + drainTimeout);
+		}
+	}
+
+	public ExecutorSettings(int poolSize, int queueCapacity) {
+		this(poolSize, queueCapacity, DEFAULT_DRAIN_TIMEOUT);
+	}
+
+	/**
+	 * Shuts the executor down, letting the submitted tasks complete for at most
+	 * the drain timeout before interrupting them.
+	 *
+	 * @param executorService the executor to shut down
+	 * @return true if every task completed within the drain timeout
+	 */
+	public boolean drain(ExecutorService executorService) {
+		executorService.shutdown();
+		try {
+			if (executorService.awaitTermination(drainTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		executorService.shutdownNow();
+		return false;
+	}
+}
@@ -0,0 +1,27 @@
+package com.openclassrooms.tourguide.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO representing the answer for one user of a bulk request, written as one
+ * line of the streamed response.
+ * <p>
+ * Exactly one of {@code result} and {@code error} is set, the other one is left
+ * out of the JSON.
+ *
+ * @param <T>      the type of the result
+ * @param userName the name of the user the line is about
+ * @param result   the result of the query for this user, null on failure
+ * @param error    the reason of the failure, null on success
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkResultDto<T>(String userName, T result, String error) {
+
+	public static <T> BulkResultDto<T> success(String userName, T result) {
+		return new BulkResultDto<>(userName, result, null);
+	}
+
+	public static <T> BulkResultDto<T> failure(String userName, String error) {
+		return new BulkResultDto<>(userName, null, error);
+	}
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.util.UUID;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * DTO representing the current location of a user, written as one line of the
+ * streamed location export.
+ *
+ * @param userId    the id of the user
+ * @param latitude  the latitude of the last visited location
+ * @param longitude the longitude of the last visited location
+ */
+public record UserLocationDto(UUID userId, double latitude, double longitude) {
+
+	public UserLocationDto(VisitedLocation visitedLocation) {
+		this(visitedLocation.userId, visitedLocation.location.latitude, visitedLocation.location.longitude);
+	}
+}
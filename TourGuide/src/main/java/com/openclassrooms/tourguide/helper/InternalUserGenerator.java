@@ -0,0 +1,103 @@
+package com.openclassrooms.tourguide.helper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Generates the internal test users in parallel.
+ * <p>
+ * Each user draws its id, its locations and their dates from its own
+ * {@link SplittableRandom}, seeded from the generator seed and the number of
+ * the user. The users are therefore reproducible and do not depend on how the
+ * work is split between the threads, which never share a random generator.
+ */
+public class InternalUserGenerator {
+	public static final int HISTORY_SIZE = 3;
+
+	private static final double MAX_LATITUDE = 85.05112878;
+	private static final int MAX_DAYS_AGO = 30;
+	// odd constant spreading the seeds of consecutive users, as SplittableRandom does for its own seeds
+	private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long seed;
+	private final Instant now;
+
+	/**
+	 * @param seed the seed of the generated users
+	 */
+	public InternalUserGenerator(long seed) {
+		this.seed = seed;
+		this.now = LocalDateTime.now().toInstant(ZoneOffset.UTC);
+	}
+
+	/**
+	 * Generates the users numbered {@code [0, count[} in parallel and adds them
+	 * to the repository.
+	 *
+	 * @param count          the number of users
+	 * @param userRepository the repository receiving the users
+	 */
+	public void generate(int count, UserRepository userRepository) {
+		generate(count, userRepository, user -> {
+		});
+	}
+
+	/**
+	 * Generates the users numbered {@code [0, count[} in parallel and adds them
+	 * to the repository once prepared, so that no other thread sees them before.
+	 *
+	 * @param count          the number of users
+	 * @param userRepository the repository receiving the users
+	 * @param preparation    called on each user before it is added, from the
+	 *                       generating threads
+	 */
+	public void generate(int count, UserRepository userRepository, Consumer<User> preparation) {
+		IntStream.range(0, count).parallel().forEach(i -> {
+			User user = generate(i);
+			preparation.accept(user);
+			userRepository.add(user);
+		});
+	}
+
+	/**
+	 * Generates one user with a history of {@value #HISTORY_SIZE} random
+	 * locations visited during the last {@value #MAX_DAYS_AGO} days.
+	 *
+	 * @param number the number of the user
+	 * @return the user named {@code internalUser<number>}
+	 */
+	public User generate(int number) {
+		SplittableRandom random = new SplittableRandom(seed + number * SEED_GAMMA);
+		String userName = "internalUser" + number;
+		User user = new User(randomUUID(random), userName, "000", userName + "@tourGuide.com");
+		for (int i = 0; i < HISTORY_SIZE; i++) {
+			Location location = new Location(random.nextDouble(-MAX_LATITUDE, MAX_LATITUDE),
+					random.nextDouble(-180, 180));
+			Date timeVisited = Date.from(now.minus(Duration.ofDays(random.nextInt(MAX_DAYS_AGO))));
+			user.addToVisitedLocations(new VisitedLocation(user.getUserId(), location, timeVisited));
+		}
+		return user;
+	}
+
+	/*
+	 * Version 4 UUID, like UUID.randomUUID, without the cost of SecureRandom.
+	 */
+	private static UUID randomUUID(SplittableRandom random) {
+		long mostSignificantBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+		long leastSignificantBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+		return new UUID(mostSignificantBits, leastSignificantBits);
+	}
+}
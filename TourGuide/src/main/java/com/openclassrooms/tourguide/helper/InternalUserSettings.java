@@ -0,0 +1,15 @@
+package com.openclassrooms.tourguide.helper;
+
+/**
+ * Generation of the internal test users by the tour guide service.
+ *
+ * @param seed       the seed of the generated ids and locations, the same
+ *                   seed giving the same users whatever the parallelism
+ * @param background true to generate the users in the background, the service
+ *                   serving traffic while they are added, false to generate
+ *                   them before the service is constructed
+ */
+public record InternalUserSettings(long seed, boolean background) {
+
+	public static final InternalUserSettings DEFAULT = new InternalUserSettings(42, false);
+}
@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.metrics;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.openclassrooms.tourguide.provider.LocationProvider;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link LocationProvider} timing each call to its delegate as
+ * {@code tourguide.upstream.calls}.
+ */
+public class MeteredLocationProvider implements LocationProvider {
+	private final LocationProvider delegate;
+	private final OutcomeTimer userLocationTimer;
+	private final OutcomeTimer attractionsTimer;
+
+	public MeteredLocationProvider(LocationProvider delegate, MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.userLocationTimer = UpstreamMetrics.timer(meterRegistry, "gpsUtil", "getUserLocation");
+		this.attractionsTimer = UpstreamMetrics.timer(meterRegistry, "gpsUtil", "getAttractions");
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		return userLocationTimer.record(() -> delegate.getUserLocation(userId));
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		return attractionsTimer.record(delegate::getAttractions);
+	}
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.tourguide.metrics;
+
+import java.util.UUID;
+
+import com.openclassrooms.tourguide.provider.RewardPointsProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link RewardPointsProvider} timing each call to its delegate as
+ * {@code tourguide.upstream.calls}.
+ */
+public class MeteredRewardPointsProvider implements RewardPointsProvider {
+	private final RewardPointsProvider delegate;
+	private final OutcomeTimer rewardPointsTimer;
+
+	public MeteredRewardPointsProvider(RewardPointsProvider delegate, MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.rewardPointsTimer = UpstreamMetrics.timer(meterRegistry, "rewardCentral", "getAttractionRewardPoints");
+	}
+
+	@Override
+	public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+		return rewardPointsTimer.record(() -> delegate.getAttractionRewardPoints(attractionId, userId));
+	}
+}
@@ -0,0 +1,30 @@
+package com.openclassrooms.tourguide.metrics;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.openclassrooms.tourguide.provider.TripPricingProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import tripPricer.Provider;
+
+/**
+ * {@link TripPricingProvider} timing each call to its delegate as
+ * {@code tourguide.upstream.calls}.
+ */
+public class MeteredTripPricingProvider implements TripPricingProvider {
+	private final TripPricingProvider delegate;
+	private final OutcomeTimer priceTimer;
+
+	public MeteredTripPricingProvider(TripPricingProvider delegate, MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.priceTimer = UpstreamMetrics.timer(meterRegistry, "tripPricer", "getPrice");
+	}
+
+	@Override
+	public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+			int rewardsPoints) {
+		return priceTimer
+				.record(() -> delegate.getPrice(apiKey, attractionId, adults, children, nightsStay, rewardsPoints));
+	}
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.tourguide.metrics;
+
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Pair of timers sharing a name, tagged {@code outcome=success} or
+ * {@code outcome=failure}, with a percentile histogram so that latency
+ * quantiles can be computed by the monitoring backend.
+ */
+public final class OutcomeTimer {
+	private final MeterRegistry meterRegistry;
+	private final Timer success;
+	private final Timer failure;
+
+	private OutcomeTimer(MeterRegistry meterRegistry, String name, String description, String... tags) {
+		this.meterRegistry = meterRegistry;
+		this.success = Timer.builder(name).description(description).tags(tags).tag("outcome", "success")
+				.publishPercentileHistogram().register(meterRegistry);
+		this.failure = Timer.builder(name).description(description).tags(tags).tag("outcome", "failure")
+				.publishPercentileHistogram().register(meterRegistry);
+	}
+
+	/**
+	 * Registers the timers.
+	 *
+	 * @param meterRegistry the registry to register to
+	 * @param name          the timer name
+	 * @param description   the timer description
+	 * @param tags          extra tags, as key/value pairs
+	 * @return the timer
+	 */
+	public static OutcomeTimer register(MeterRegistry meterRegistry, String name, String description,
+			String... tags) {
+		return new OutcomeTimer(meterRegistry, name, description, tags);
+	}
+
+	/**
+	 * Returns a timer recording nothing, used until a registry is bound.
+	 *
+	 * @param name the timer name
+	 * @return the timer
+	 */
+	public static OutcomeTimer noop(String name) {
+		return new OutcomeTimer(new CompositeMeterRegistry(), name, "");
+	}
+
+	/**
+	 * Starts timing an asynchronous operation.
+	 *
+	 * @return the sample to stop when the operation completes
+	 */
+	public Timer.Sample start() {
+		return Timer.start(meterRegistry);
+	}
+
+	/**
+	 * Stops timing an asynchronous operation.
+	 *
+	 * @param sample  the sample returned by {@link #start()}
+	 * @param failure the failure of the operation, null if it succeeded
+	 */
+	public void stop(Timer.Sample sample, Throwable failure) {
+		sample.stop(failure == null ? this.success : this.failure);
+	}
+
+	/**
+	 * Times a synchronous operation.
+	 *
+	 * @param <T>       the result type
+	 * @param operation the operation
+	 * @return the result of the operation
+	 */
+	public <T> T record(Supplier<T> operation) {
+		Timer.Sample sample = start();
+		try {
+			T result = operation.get();
+			stop(sample, null);
+			return result;
+		} catch (RuntimeException | Error e) {
+			stop(sample, e);
+			throw e;
+		}
+	}
+}
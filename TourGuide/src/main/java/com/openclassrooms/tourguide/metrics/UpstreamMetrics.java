@@ -0,0 +1,19 @@
+package com.openclassrooms.tourguide.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Naming of the timers of the calls to the upstream providers.
+ */
+final class UpstreamMetrics {
+	static final String UPSTREAM_CALLS = "tourguide.upstream.calls";
+
+	private UpstreamMetrics() {
+		super();
+	}
+
+	static OutcomeTimer timer(MeterRegistry meterRegistry, String upstream, String method) {
+		return OutcomeTimer.register(meterRegistry, UPSTREAM_CALLS, "Duration of the calls to the upstream services",
+				"upstream", upstream, "method", method);
+	}
+}
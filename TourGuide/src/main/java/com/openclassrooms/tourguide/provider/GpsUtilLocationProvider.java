@@ -0,0 +1,29 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * {@link LocationProvider} delegating to {@link GpsUtil}.
+ */
+public class GpsUtilLocationProvider implements LocationProvider {
+	private final GpsUtil gpsUtil;
+
+	public GpsUtilLocationProvider(GpsUtil gpsUtil) {
+		this.gpsUtil = gpsUtil;
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		return gpsUtil.getUserLocation(userId);
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		return gpsUtil.getAttractions();
+	}
+}
@@ -0,0 +1,143 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of the delays simulated by the in-process providers before each
+ * answer.
+ * <p>
+ * Delays are drawn from {@link ThreadLocalRandom}: only the data returned by
+ * the simulated providers is deterministic, not their timing.
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+	/** 99th percentile of the standard normal distribution. */
+	double NORMAL_P99 = 2.3263478740408408;
+
+	/**
+	 * Draws the next delay.
+	 *
+	 * @return the delay in nanoseconds, zero or positive
+	 */
+	long nextDelayNanos();
+
+	/**
+	 * Sleeps for the next delay. An interrupt ends the sleep early and is kept on
+	 * the calling thread.
+	 */
+	default void pause() {
+		long delayNanos = nextDelayNanos();
+		if (delayNanos <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(delayNanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return a model answering immediately
+	 */
+	static LatencyModel none() {
+		return () -> 0;
+	}
+
+	/**
+	 * @param delay the delay of every call
+	 * @return a model always waiting the same delay
+	 */
+	static LatencyModel fixed(Duration delay) {
+		long delayNanos = requireNonNegative(delay).toNanos();
+		return () -> delayNanos;
+	}
+
+	/**
+	 * @param min the shortest delay
+	 * @param max the longest delay, at least {@code min}
+	 * @return a model drawing delays uniformly in {@code [min, max]}
+	 */
+	static LatencyModel uniform(Duration min, Duration max) {
+		long minNanos = requireNonNegative(min).toNanos();
+		long maxNanos = requireNonNegative(max).toNanos();
+		if (maxNanos < minNanos) {
+			throw new IllegalArgumentException("Maximum latency " + max + " is lower than minimum " + min);
+		}
+		return () -> ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+	}
+
+	/**
+	 * Log-normal delays, most calls being close to the median while a few are much
+	 * slower, as observed on remote services.
+	 *
+	 * @param median the median delay, strictly positive
+	 * @param p99    the 99th percentile, at least {@code median}
+	 * @return a model drawing long-tailed delays
+	 */
+	static LatencyModel longTail(Duration median, Duration p99) {
+		long medianNanos = requireNonNegative(median).toNanos();
+		if (medianNanos == 0 || p99.compareTo(median) < 0) {
+			throw new IllegalArgumentException(
+					"Long tail latency needs 0 < median <= p99 : " + median + ", " + p99);
+		}
+		double sigma = Math.log((double) p99.toNanos() / medianNanos) / NORMAL_P99;
+		return () -> (long) (medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+	}
+
+	/**
+	 * Parses a model from its configuration value: {@code none},
+	 * {@code fixed:<delay>}, {@code uniform:<min>,<max>} or
+	 * {@code long-tail:<median>,<p99>}, the durations being in the ISO-8601 format
+	 * such as {@code PT0.05S}.
+	 *
+	 * @param spec the configuration value
+	 * @return the matching model
+	 */
+	static LatencyModel parse(String spec) {
+		String normalizedSpec = spec.trim().toLowerCase(Locale.ROOT);
+		int colon = normalizedSpec.indexOf(':');
+		String kind = colon < 0 ? normalizedSpec : normalizedSpec.substring(0, colon);
+		String[] durations = colon < 0 ? new String[0] : normalizedSpec.substring(colon + 1).split(",");
+		try {
+			switch (kind) {
+			case "none":
+				if (durations.length == 0) {
+					return none();
+				}
+				break;
+			case "fixed":
+				if (durations.length == 1) {
+					return fixed(Duration.parse(durations[0].trim()));
+				}
+				break;
+			case "uniform":
+				if (durations.length == 2) {
+					return uniform(Duration.parse(durations[0].trim()), Duration.parse(durations[1].trim()));
+				}
+				break;
+			case "long-tail":
+				if (durations.length == 2) {
+					return longTail(Duration.parse(durations[0].trim()), Duration.parse(durations[1].trim()));
+				}
+				break;
+			default:
+				break;
+			}
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid latency model : " + spec, e);
+		}
+		throw new IllegalArgumentException("Invalid latency model : " + spec);
+	}
+
+	private static Duration requireNonNegative(Duration duration) {
+		if (duration.isNegative()) {
+			throw new IllegalArgumentException("Latency must not be negative : " + duration);
+		}
+		return duration;
+	}
+}
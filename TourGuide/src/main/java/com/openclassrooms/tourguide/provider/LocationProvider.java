@@ -0,0 +1,29 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Source of the user locations and of the attractions, backed by GpsUtil by
+ * default.
+ */
+public interface LocationProvider {
+
+	/**
+	 * Returns the current location of a user.
+	 *
+	 * @param userId the user id
+	 * @return the visited location
+	 */
+	VisitedLocation getUserLocation(UUID userId);
+
+	/**
+	 * Returns all known attractions.
+	 *
+	 * @return the attractions
+	 */
+	List<Attraction> getAttractions();
+}
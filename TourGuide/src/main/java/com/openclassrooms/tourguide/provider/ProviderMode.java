@@ -0,0 +1,42 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.Locale;
+
+/**
+ * Selects the providers wired into the services with the
+ * {@code tourguide.providers.mode} property: {@code library} for the GpsUtil,
+ * RewardCentral and TripPricer jars, {@code simulated} for the in-process
+ * stand-ins.
+ */
+public enum ProviderMode {
+
+	LIBRARY("library"),
+
+	SIMULATED("simulated");
+
+	private final String mode;
+
+	ProviderMode(String mode) {
+		this.mode = mode;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	/**
+	 * Resolves the mode matching a {@code tourguide.providers.mode} value.
+	 *
+	 * @param mode {@code library} or {@code simulated}, case insensitive
+	 * @return the matching mode
+	 */
+	public static ProviderMode fromMode(String mode) {
+		String normalizedMode = mode.trim().toLowerCase(Locale.ROOT);
+		for (ProviderMode providerMode : values()) {
+			if (providerMode.mode.equals(normalizedMode)) {
+				return providerMode;
+			}
+		}
+		throw new IllegalArgumentException("Unknown provider mode : " + mode);
+	}
+}
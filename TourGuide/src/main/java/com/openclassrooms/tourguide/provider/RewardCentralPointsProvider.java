@@ -0,0 +1,21 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.UUID;
+
+import rewardCentral.RewardCentral;
+
+/**
+ * {@link RewardPointsProvider} delegating to {@link RewardCentral}.
+ */
+public class RewardCentralPointsProvider implements RewardPointsProvider {
+	private final RewardCentral rewardCentral;
+
+	public RewardCentralPointsProvider(RewardCentral rewardCentral) {
+		this.rewardCentral = rewardCentral;
+	}
+
+	@Override
+	public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+		return rewardCentral.getAttractionRewardPoints(attractionId, userId);
+	}
+}
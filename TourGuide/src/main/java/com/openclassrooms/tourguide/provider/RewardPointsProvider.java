@@ -0,0 +1,19 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.UUID;
+
+/**
+ * Source of the reward points granted to a user for an attraction, backed by
+ * RewardCentral by default.
+ */
+public interface RewardPointsProvider {
+
+	/**
+	 * Returns the reward points of an attraction for a user.
+	 *
+	 * @param attractionId the attraction id
+	 * @param userId       the user id
+	 * @return the number of reward points
+	 */
+	int getAttractionRewardPoints(UUID attractionId, UUID userId);
+}
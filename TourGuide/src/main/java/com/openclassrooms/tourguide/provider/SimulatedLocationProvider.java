@@ -0,0 +1,81 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * In-process {@link LocationProvider} standing in for GpsUtil.
+ * <p>
+ * Attractions are generated once from the seed and the same instances are
+ * returned by every call, so their ids, drawn by {@link Attraction}, stay
+ * stable for the lifetime of the provider. The n-th location returned for a user only depends on the seed, the
+ * user id and n, so that two runs with the same seed see the same moves.
+ */
+public class SimulatedLocationProvider implements LocationProvider {
+	public static final int DEFAULT_ATTRACTION_COUNT = 26;
+
+	// same latitude bounds as GpsUtil
+	private static final double MAX_LATITUDE = 85.05112878;
+
+	private final long seed;
+	private final LatencyModel latencyModel;
+	private final List<Attraction> attractions;
+	private final ConcurrentMap<UUID, AtomicLong> locationCounts = new ConcurrentHashMap<>();
+
+	public SimulatedLocationProvider(long seed, LatencyModel latencyModel) {
+		this(DEFAULT_ATTRACTION_COUNT, seed, latencyModel);
+	}
+
+	/**
+	 * @param attractionCount the number of attractions to generate
+	 * @param seed            the seed of the generated data
+	 * @param latencyModel    the delay simulated before each answer
+	 */
+	public SimulatedLocationProvider(int attractionCount, long seed, LatencyModel latencyModel) {
+		if (attractionCount < 0) {
+			throw new IllegalArgumentException("Attraction count must not be negative : " + attractionCount);
+		}
+		this.seed = seed;
+		this.latencyModel = latencyModel;
+		this.attractions = generateAttractions(attractionCount, seed);
+	}
+
+	@Override
+	public VisitedLocation getUserLocation(UUID userId) {
+		latencyModel.pause();
+		long count = locationCounts.computeIfAbsent(userId, id -> new AtomicLong()).getAndIncrement();
+		return new VisitedLocation(userId, nextLocation(SimulatedRandom.of(seed, userId, count)), new Date());
+	}
+
+	@Override
+	public List<Attraction> getAttractions() {
+		latencyModel.pause();
+		return attractions;
+	}
+
+	private static List<Attraction> generateAttractions(int attractionCount, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		List<Attraction> result = new ArrayList<>(attractionCount);
+		for (int i = 0; i < attractionCount; i++) {
+			Location location = nextLocation(random);
+			result.add(new Attraction("Attraction " + i, "City " + i % 100, "State " + i % 50, location.latitude,
+					location.longitude));
+		}
+		return List.copyOf(result);
+	}
+
+	private static Location nextLocation(SplittableRandom random) {
+		return new Location(random.nextDouble(-MAX_LATITUDE, MAX_LATITUDE), random.nextDouble(-180, 180));
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic random sources of the simulated providers: the same seed and
+ * key always give the same sequence.
+ */
+final class SimulatedRandom {
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private SimulatedRandom() {
+		super();
+	}
+
+	static SplittableRandom of(long seed, UUID id, long salt) {
+		long key = seed;
+		key = key * GOLDEN_GAMMA + id.getMostSignificantBits();
+		key = key * GOLDEN_GAMMA + id.getLeastSignificantBits();
+		key = key * GOLDEN_GAMMA + salt;
+		return new SplittableRandom(key);
+	}
+}
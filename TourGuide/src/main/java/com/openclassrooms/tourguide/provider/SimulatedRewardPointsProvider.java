@@ -0,0 +1,30 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.UUID;
+
+/**
+ * In-process {@link RewardPointsProvider} standing in for RewardCentral.
+ * <p>
+ * Points are in {@code [1, 1000[} like RewardCentral, but only depend on the
+ * seed and the attraction and user ids.
+ */
+public class SimulatedRewardPointsProvider implements RewardPointsProvider {
+	private final long seed;
+	private final LatencyModel latencyModel;
+
+	/**
+	 * @param seed         the seed of the generated points
+	 * @param latencyModel the delay simulated before each answer
+	 */
+	public SimulatedRewardPointsProvider(long seed, LatencyModel latencyModel) {
+		this.seed = seed;
+		this.latencyModel = latencyModel;
+	}
+
+	@Override
+	public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+		latencyModel.pause();
+		long userKey = userId.getMostSignificantBits() ^ userId.getLeastSignificantBits();
+		return SimulatedRandom.of(seed, attractionId, userKey).nextInt(1, 1000);
+	}
+}
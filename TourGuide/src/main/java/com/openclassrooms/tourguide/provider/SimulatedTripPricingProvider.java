@@ -0,0 +1,55 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import tripPricer.Provider;
+
+/**
+ * In-process {@link TripPricingProvider} standing in for TripPricer.
+ * <p>
+ * Offers follow the TripPricer pricing rules: five distinct providers, a price
+ * growing with the travellers and the nights, lowered by the reward points.
+ * They only depend on the seed and the request parameters.
+ */
+public class SimulatedTripPricingProvider implements TripPricingProvider {
+	public static final int OFFER_COUNT = 5;
+
+	private static final List<String> PROVIDER_NAMES = List.of("Holiday Travels", "Enterprize Ventures Limited",
+			"Sunny Days", "FlyAway Trips", "United Partners Vacations", "Dream Trips", "Live Free",
+			"Dancing Waves Cruselines and Partners", "AdventureCo", "Cure-Your-Blues");
+
+	private final long seed;
+	private final LatencyModel latencyModel;
+
+	/**
+	 * @param seed         the seed of the generated offers
+	 * @param latencyModel the delay simulated before each answer
+	 */
+	public SimulatedTripPricingProvider(long seed, LatencyModel latencyModel) {
+		this.seed = seed;
+		this.latencyModel = latencyModel;
+	}
+
+	@Override
+	public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+			int rewardsPoints) {
+		latencyModel.pause();
+		SplittableRandom random = SimulatedRandom.of(seed, attractionId,
+				Objects.hash(adults, children, nightsStay, rewardsPoints));
+		List<String> names = new ArrayList<>(PROVIDER_NAMES);
+		List<Provider> offers = new ArrayList<>(OFFER_COUNT);
+		for (int i = 0; i < OFFER_COUNT; i++) {
+			String name = names.remove(random.nextInt(names.size()));
+			int multiple = random.nextInt(100, 700);
+			// integer division, as in TripPricer
+			double childrenDiscount = children / 3;
+			double price = multiple * adults + multiple * childrenDiscount * nightsStay + 0.99 - rewardsPoints;
+			offers.add(new Provider(attractionId, name, Math.max(0, price)));
+		}
+		return offers;
+	}
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.List;
+import java.util.UUID;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+/**
+ * {@link TripPricingProvider} delegating to {@link TripPricer}.
+ */
+public class TripPricerPricingProvider implements TripPricingProvider {
+	private final TripPricer tripPricer;
+
+	public TripPricerPricingProvider(TripPricer tripPricer) {
+		this.tripPricer = tripPricer;
+	}
+
+	@Override
+	public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+			int rewardsPoints) {
+		return tripPricer.getPrice(apiKey, attractionId, adults, children, nightsStay, rewardsPoints);
+	}
+}
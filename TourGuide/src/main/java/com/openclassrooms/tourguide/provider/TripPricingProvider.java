@@ -0,0 +1,26 @@
+package com.openclassrooms.tourguide.provider;
+
+import java.util.List;
+import java.util.UUID;
+
+import tripPricer.Provider;
+
+/**
+ * Source of the trip deals offered to a user, backed by TripPricer by default.
+ */
+public interface TripPricingProvider {
+
+	/**
+	 * Returns the trip offers matching the given travel parameters.
+	 *
+	 * @param apiKey        the pricing api key
+	 * @param attractionId  the id the trip is priced for
+	 * @param adults        the number of adults
+	 * @param children      the number of children
+	 * @param nightsStay    the trip duration in nights
+	 * @param rewardsPoints the reward points deducted from the price
+	 * @return the offers, one per provider
+	 */
+	List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+			int rewardsPoints);
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.tourguide.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * {@link UserRepository} keeping the users in memory, in two
+ * {@link ConcurrentHashMap} indexed by user name and by user id.
+ */
+public class InMemoryUserRepository implements UserRepository {
+	private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+	private final ConcurrentMap<String, User> usersByName;
+	private final ConcurrentMap<UUID, User> usersById;
+
+	public InMemoryUserRepository() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * @param expectedSize the expected number of users, used to pre-size the maps
+	 */
+	public InMemoryUserRepository(int expectedSize) {
+		this.usersByName = new ConcurrentHashMap<>(expectedSize);
+		this.usersById = new ConcurrentHashMap<>(expectedSize);
+	}
+
+	@Override
+	public Optional<User> findByUserName(String userName) {
+		return Optional.ofNullable(usersByName.get(userName));
+	}
+
+	@Override
+	public Optional<User> findById(UUID userId) {
+		return Optional.ofNullable(usersById.get(userId));
+	}
+
+	@Override
+	public boolean add(User user) {
+		if (usersByName.putIfAbsent(user.getUserName(), user) != null) {
+			return false;
+		}
+		usersById.put(user.getUserId(), user);
+		return true;
+	}
+
+	@Override
+	public Collection<User> findAll() {
+		return Collections.unmodifiableCollection(usersByName.values());
+	}
+
+	@Override
+	public int count() {
+		return usersByName.size();
+	}
+}
@@ -0,0 +1,325 @@
+package com.openclassrooms.tourguide.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of the visited locations of all users, stored off-heap in
+ * memory-mapped files so that it survives restarts.
+ * <p>
+ * The log is a sequence of fixed-width records of {@value #RECORD_SIZE} bytes
+ * (user id, latitude, longitude and time visited), split into segment files of
+ * {@code recordsPerSegment} records each, preallocated and mapped once. Only
+ * the position of its records is kept on the heap for each user, so a page of
+ * the history of a user is read straight from the mapped files on demand.
+ * <p>
+ * Appends reserve their record with an atomic counter and can run concurrently.
+ * The records reach the files when the operating system writes the mapped
+ * pages back, even if the process dies; {@link #force()} and {@link #close()}
+ * write them synchronously. Appends and reads share a read lock which
+ * {@link #close()} takes exclusively, so that it waits for the appends in
+ * progress and none is written after it. When the log is opened again, the per-user
+ * positions are rebuilt by scanning the segments, skipping the records left
+ * blank by appends interrupted by a crash.
+ */
+@Slf4j
+public final class LocationLog implements Closeable {
+	public static final int RECORD_SIZE = 40;
+	public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+	private static final String SEGMENT_PREFIX = "locations-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final MappedByteBuffer[] NO_SEGMENTS = new MappedByteBuffer[0];
+
+	private final Path directory;
+	private final int recordsPerSegment;
+	private final AtomicInteger nextRecord;
+	private final ConcurrentMap<UUID, UserRecords> recordsByUser = new ConcurrentHashMap<>();
+	// grown under the lock of the log, read without locking
+	private volatile MappedByteBuffer[] segments = NO_SEGMENTS;
+	// shared by the appends and the reads, exclusive to close
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+	private boolean closed;
+
+	/*
+	 * Positions in the log of the records of one user, in the order they were
+	 * appended.
+	 */
+	private static final class UserRecords {
+		private int[] records = new int[4];
+		private int size;
+
+		synchronized void add(int record) {
+			if (size == records.length) {
+				records = Arrays.copyOf(records, size * 2);
+			}
+			records[size++] = record;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized int[] between(int from, int to) {
+			int start = Math.max(0, from);
+			int end = Math.min(size, to);
+			return start >= end ? new int[0] : Arrays.copyOfRange(records, start, end);
+		}
+	}
+
+	private LocationLog(Path directory, int recordsPerSegment) throws IOException {
+		this.directory = directory;
+		this.recordsPerSegment = recordsPerSegment;
+		Files.createDirectories(directory);
+		int segmentCount = 0;
+		while (Files.exists(segmentPath(segmentCount))) {
+			segmentCount++;
+		}
+		int next = 0;
+		for (int segment = 0; segment < segmentCount; segment++) {
+			MappedByteBuffer buffer = map(segment);
+			segments = append(segments, buffer);
+			for (int slot = 0; slot < recordsPerSegment; slot++) {
+				UUID userId = readUserId(buffer, slot * RECORD_SIZE);
+				if (userId != null) {
+					int record = segment * recordsPerSegment + slot;
+					recordsByUser.computeIfAbsent(userId, key -> new UserRecords()).add(record);
+					next = record + 1;
+				}
+			}
+		}
+		this.nextRecord = new AtomicInteger(next);
+	}
+
+	/**
+	 * Opens the log stored in a directory, creating it if needed, with segments
+	 * of {@value #DEFAULT_RECORDS_PER_SEGMENT} records.
+	 *
+	 * @param directory the directory of the segment files
+	 * @return the log, positioned after its last record
+	 * @throws IOException if the segments cannot be created or mapped
+	 */
+	public static LocationLog open(Path directory) throws IOException {
+		return open(directory, DEFAULT_RECORDS_PER_SEGMENT);
+	}
+
+	/**
+	 * Opens the log stored in a directory, creating it if needed.
+	 *
+	 * @param directory         the directory of the segment files
+	 * @param recordsPerSegment the number of records per segment file, which
+	 *                          must be the one the log was created with
+	 * @return the log, positioned after its last record
+	 * @throws IOException if the segments cannot be created or mapped
+	 */
+	public static LocationLog open(Path directory, int recordsPerSegment) throws IOException {
+		if (recordsPerSegment < 1 || recordsPerSegment > Integer.MAX_VALUE / RECORD_SIZE) {
+			throw new IllegalArgumentException("Invalid number of records per segment : " + recordsPerSegment);
+		}
+		LocationLog locationLog = new LocationLog(directory, recordsPerSegment);
+		log.info("Opened the location log in {} with {} records of {} users", directory, locationLog.size(),
+				locationLog.recordsByUser.size());
+		return locationLog;
+	}
+
+	/**
+	 * Appends a visited location.
+	 *
+	 * @param visitedLocation the location, whose user id must not be the nil UUID
+	 * @throws IllegalStateException if the log is closed or full
+	 */
+	public void append(VisitedLocation visitedLocation) {
+		UUID userId = visitedLocation.userId;
+		if (userId.getMostSignificantBits() == 0 && userId.getLeastSignificantBits() == 0) {
+			throw new IllegalArgumentException("The nil UUID marks blank records");
+		}
+		Lock lock = openLock();
+		try {
+			int record = nextRecord.getAndIncrement();
+			if (record < 0) {
+				throw new IllegalStateException("The location log is full");
+			}
+			MappedByteBuffer buffer = segment(record / recordsPerSegment);
+			int offset = (record % recordsPerSegment) * RECORD_SIZE;
+			buffer.putDouble(offset + 16, visitedLocation.location.latitude);
+			buffer.putDouble(offset + 24, visitedLocation.location.longitude);
+			buffer.putLong(offset + 32, visitedLocation.timeVisited.getTime());
+			// the user id last, a record without it being skipped when the log is opened
+			buffer.putLong(offset + 8, userId.getLeastSignificantBits());
+			buffer.putLong(offset, userId.getMostSignificantBits());
+			recordsByUser.computeIfAbsent(userId, key -> new UserRecords()).add(record);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param userId the user id
+	 * @return the number of locations of the user in the log
+	 */
+	public int count(UUID userId) {
+		UserRecords userRecords = recordsByUser.get(userId);
+		return userRecords == null ? 0 : userRecords.size();
+	}
+
+	/**
+	 * Reads the locations of a user whose rank among the locations of the user is
+	 * in {@code [from, to[}, oldest first.
+	 *
+	 * @param userId the user id
+	 * @param from   the rank of the first location wanted
+	 * @param to     the rank following the last location wanted
+	 * @return the locations, read from the mapped files
+	 * @throws IllegalStateException if the log is closed
+	 */
+	public List<VisitedLocation> read(UUID userId, int from, int to) {
+		Lock lock = openLock();
+		try {
+			UserRecords userRecords = recordsByUser.get(userId);
+			if (userRecords == null) {
+				return List.of();
+			}
+			int[] records = userRecords.between(from, to);
+			MappedByteBuffer[] current = segments;
+			List<VisitedLocation> result = new ArrayList<>(records.length);
+			for (int record : records) {
+				MappedByteBuffer buffer = current[record / recordsPerSegment];
+				int offset = (record % recordsPerSegment) * RECORD_SIZE;
+				result.add(new VisitedLocation(userId,
+						new Location(buffer.getDouble(offset + 16), buffer.getDouble(offset + 24)),
+						new Date(buffer.getLong(offset + 32))));
+			}
+			return result;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the ids of the users having locations in the log
+	 */
+	public Set<UUID> getUserIds() {
+		return Collections.unmodifiableSet(recordsByUser.keySet());
+	}
+
+	/**
+	 * @return the number of records reserved in the log, including the blank ones
+	 */
+	public int size() {
+		return Math.max(0, nextRecord.get());
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Writes the appended records to the files.
+	 */
+	public void force() {
+		for (MappedByteBuffer buffer : segments) {
+			buffer.force();
+		}
+	}
+
+	/**
+	 * Waits for the appends in progress, writes the appended records to the
+	 * files and rejects further appends and reads. The segments are released,
+	 * to be unmapped once garbage collected.
+	 */
+	@Override
+	public void close() {
+		Lock lock = closeLock.writeLock();
+		lock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			force();
+			segments = NO_SEGMENTS;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Takes the read lock, released by the caller, unless the log is closed.
+	 */
+	private Lock openLock() {
+		Lock lock = closeLock.readLock();
+		lock.lock();
+		if (closed) {
+			lock.unlock();
+			throw new IllegalStateException("The location log is closed");
+		}
+		return lock;
+	}
+
+	private MappedByteBuffer segment(int segment) {
+		MappedByteBuffer[] current = segments;
+		if (segment < current.length) {
+			return current[segment];
+		}
+		synchronized (this) {
+			while (segments.length <= segment) {
+				try {
+					segments = append(segments, map(segments.length));
+				} catch (IOException e) {
+					throw new IllegalStateException("Cannot create segment " + segments.length + " of the location log",
+							e);
+				}
+			}
+			return segments[segment];
+		}
+	}
+
+	private MappedByteBuffer map(int segment) throws IOException {
+		try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			// the mapping stays valid once the channel is closed
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+		}
+	}
+
+	private Path segmentPath(int segment) {
+		return directory.resolve(SEGMENT_PREFIX + String.format("%06d", segment) + SEGMENT_SUFFIX);
+	}
+
+	private static MappedByteBuffer[] append(MappedByteBuffer[] segments, MappedByteBuffer segment) {
+		MappedByteBuffer[] result = Arrays.copyOf(segments, segments.length + 1);
+		result[segments.length] = segment;
+		return result;
+	}
+
+	private static UUID readUserId(MappedByteBuffer buffer, int offset) {
+		long mostSignificantBits = buffer.getLong(offset);
+		long leastSignificantBits = buffer.getLong(offset + 8);
+		if (mostSignificantBits == 0 && leastSignificantBits == 0) {
+			return null;
+		}
+		return new UUID(mostSignificantBits, leastSignificantBits);
+	}
+}
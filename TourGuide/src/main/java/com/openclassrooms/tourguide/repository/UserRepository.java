@@ -0,0 +1,65 @@
+package com.openclassrooms.tourguide.repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Store of the users, indexed by user name and by user id.
+ * <p>
+ * Implementations must be safe for concurrent reads and inserts from the web
+ * threads, the tracker and the service executors.
+ */
+public interface UserRepository {
+
+	/**
+	 * Finds a user by user name.
+	 *
+	 * @param userName the user name
+	 * @return the user, or empty if unknown
+	 */
+	Optional<User> findByUserName(String userName);
+
+	/**
+	 * Finds a user by id.
+	 *
+	 * @param userId the user id
+	 * @return the user, or empty if unknown
+	 */
+	Optional<User> findById(UUID userId);
+
+	/**
+	 * Adds a user unless one with the same user name already exists.
+	 *
+	 * @param user the user to add
+	 * @return true if the user was added
+	 */
+	boolean add(User user);
+
+	/**
+	 * Returns a read-only live view of all users, without copying them.
+	 * <p>
+	 * Iteration is weakly consistent: it never fails because of concurrent
+	 * inserts and may or may not reflect them.
+	 *
+	 * @return the users
+	 */
+	Collection<User> findAll();
+
+	/**
+	 * Streams all users with the same guarantees as {@link #findAll()}.
+	 *
+	 * @return a stream of the users
+	 */
+	default Stream<User> stream() {
+		return findAll().stream();
+	}
+
+	/**
+	 * @return the number of users
+	 */
+	int count();
+}
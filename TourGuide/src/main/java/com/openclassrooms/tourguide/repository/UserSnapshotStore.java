@@ -0,0 +1,362 @@
+package com.openclassrooms.tourguide.repository;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
+import com.openclassrooms.tourguide.user.UserReward;
+import com.openclassrooms.tourguide.user.VisitedLocationHistory;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Binary snapshot of the users, their preferences, the retained part of their
+ * visited location history and their rewards, kept in a single file.
+ * <p>
+ * The file starts with a magic number and a format version, followed by the
+ * users one after the other, each preceded by a marker, then an end marker.
+ * Numbers are written in big-endian order and strings as their UTF-8 length
+ * and bytes. Both ways stream through a {@link FileChannel} and a fixed
+ * buffer, so a snapshot of any size is written and read in constant memory.
+ * <p>
+ * A snapshot is written to a temporary file moved over the previous one once
+ * complete, so the file always holds a whole snapshot. The users are read
+ * while they keep changing: each user is written from lock-free snapshots of
+ * its history and rewards, without pausing the tracking.
+ * <p>
+ * Trip deals are not kept, being priced again on demand.
+ */
+public class UserSnapshotStore {
+	private static final int MAGIC = 0x54475553; // TGUS
+	private static final int VERSION = 1;
+	private static final byte USER = 1;
+	private static final byte END = 0;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Path file;
+
+	/**
+	 * @param file the snapshot file
+	 */
+	public UserSnapshotStore(Path file) {
+		this.file = file;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return true if a snapshot has been written
+	 */
+	public boolean exists() {
+		return Files.isRegularFile(file);
+	}
+
+	/**
+	 * Writes a snapshot of the given users, replacing the previous one.
+	 *
+	 * @param users the users, possibly changing while they are written
+	 * @return the number of users written
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public int write(Collection<User> users) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		int count = 0;
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				Output output = new Output(channel);
+				output.putInt(MAGIC);
+				output.putInt(VERSION);
+				for (User user : users) {
+					output.put(USER);
+					writeUser(output, user);
+					count++;
+				}
+				output.put(END);
+				output.flush();
+				channel.force(false);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+		return count;
+	}
+
+	/**
+	 * Reads the snapshot into a repository.
+	 *
+	 * @param userRepository     the repository receiving the users
+	 * @param attractionResolver maps the name of a rewarded attraction to the
+	 *                           current attraction of that name, or to null to
+	 *                           rebuild it from the snapshot, attraction ids
+	 *                           not being stable across restarts
+	 * @return the number of users read, 0 if there is no snapshot
+	 * @throws IOException if the snapshot cannot be read or is not a snapshot
+	 */
+	public int read(UserRepository userRepository, Function<String, Attraction> attractionResolver)
+			throws IOException {
+		if (!exists()) {
+			return 0;
+		}
+		int count = 0;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			Input input = new Input(channel);
+			if (input.getInt() != MAGIC) {
+				throw new IOException(file + " is not a user snapshot");
+			}
+			int version = input.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported user snapshot version " + version + " in " + file);
+			}
+			while (input.get() == USER) {
+				userRepository.add(readUser(input, attractionResolver));
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void writeUser(Output output, User user) throws IOException {
+		output.putUuid(user.getUserId());
+		output.putString(user.getUserName());
+		output.putString(user.getPhoneNumber());
+		output.putString(user.getEmailAddress());
+		Date latestLocationTimestamp = user.getLatestLocationTimestamp();
+		output.putLong(latestLocationTimestamp == null ? Long.MIN_VALUE : latestLocationTimestamp.getTime());
+
+		UserPreferences preferences = user.getUserPreferences();
+		output.putInt(preferences.getAttractionProximity());
+		output.putInt(preferences.getTripDuration());
+		output.putInt(preferences.getTicketQuantity());
+		output.putInt(preferences.getNumberOfAdults());
+		output.putInt(preferences.getNumberOfChildren());
+
+		VisitedLocationHistory history = user.getVisitedLocationHistory();
+		List<VisitedLocation> visitedLocations = history.snapshot();
+		output.putInt(history.getRetention());
+		output.putInt(visitedLocations.size());
+		for (VisitedLocation visitedLocation : visitedLocations) {
+			writeVisitedLocation(output, visitedLocation);
+		}
+
+		List<UserReward> userRewards = List.copyOf(user.getUserRewards());
+		output.putInt(userRewards.size());
+		for (UserReward userReward : userRewards) {
+			Attraction attraction = userReward.attraction;
+			output.putString(attraction.attractionName);
+			output.putString(attraction.city);
+			output.putString(attraction.state);
+			output.putDouble(attraction.latitude);
+			output.putDouble(attraction.longitude);
+			writeVisitedLocation(output, userReward.visitedLocation);
+			output.putInt(userReward.getRewardPoints());
+		}
+	}
+
+	private static User readUser(Input input, Function<String, Attraction> attractionResolver) throws IOException {
+		UUID userId = input.getUuid();
+		String userName = input.getString();
+		String phoneNumber = input.getString();
+		String emailAddress = input.getString();
+		long latestLocationTimestamp = input.getLong();
+
+		UserPreferences preferences = new UserPreferences();
+		preferences.setAttractionProximity(input.getInt());
+		preferences.setTripDuration(input.getInt());
+		preferences.setTicketQuantity(input.getInt());
+		preferences.setNumberOfAdults(input.getInt());
+		preferences.setNumberOfChildren(input.getInt());
+
+		int retention = input.getInt();
+		User user = new User(userId, userName, phoneNumber, emailAddress, retention);
+		if (latestLocationTimestamp != Long.MIN_VALUE) {
+			user.setLatestLocationTimestamp(new Date(latestLocationTimestamp));
+		}
+		user.setUserPreferences(preferences);
+		VisitedLocationHistory history = user.getVisitedLocationHistory();
+		int visitedLocationCount = input.getInt();
+		for (int i = 0; i < visitedLocationCount; i++) {
+			history.append(input.getDouble(), input.getDouble(), input.getLong());
+		}
+
+		int userRewardCount = input.getInt();
+		for (int i = 0; i < userRewardCount; i++) {
+			String attractionName = input.getString();
+			String city = input.getString();
+			String state = input.getString();
+			double latitude = input.getDouble();
+			double longitude = input.getDouble();
+			Attraction attraction = attractionResolver.apply(attractionName);
+			if (attraction == null) {
+				attraction = new Attraction(attractionName, city, state, latitude, longitude);
+			}
+			VisitedLocation visitedLocation = readVisitedLocation(input, userId);
+			user.addUserReward(new UserReward(visitedLocation, attraction, input.getInt()));
+		}
+		return user;
+	}
+
+	private static void writeVisitedLocation(Output output, VisitedLocation visitedLocation) throws IOException {
+		output.putDouble(visitedLocation.location.latitude);
+		output.putDouble(visitedLocation.location.longitude);
+		output.putLong(visitedLocation.timeVisited.getTime());
+	}
+
+	private static VisitedLocation readVisitedLocation(Input input, UUID userId) throws IOException {
+		double latitude = input.getDouble();
+		double longitude = input.getDouble();
+		return new VisitedLocation(userId, new Location(latitude, longitude), new Date(input.getLong()));
+	}
+
+	/*
+	 * Buffered writes to a channel, the buffer being written out whenever the
+	 * next value does not fit.
+	 */
+	private static final class Output {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		void put(byte value) throws IOException {
+			ensure(Byte.BYTES).put(value);
+		}
+
+		void putInt(int value) throws IOException {
+			ensure(Integer.BYTES).putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			ensure(Long.BYTES).putLong(value);
+		}
+
+		void putDouble(double value) throws IOException {
+			ensure(Double.BYTES).putDouble(value);
+		}
+
+		void putUuid(UUID value) throws IOException {
+			putLong(value.getMostSignificantBits());
+			putLong(value.getLeastSignificantBits());
+		}
+
+		void putString(String value) throws IOException {
+			byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+			putInt(bytes == null ? -1 : bytes.length);
+			if (bytes == null) {
+				return;
+			}
+			int offset = 0;
+			while (offset < bytes.length) {
+				int length = Math.min(bytes.length - offset, ensure(1).remaining());
+				buffer.put(bytes, offset, length);
+				offset += length;
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		private ByteBuffer ensure(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				flush();
+			}
+			return buffer;
+		}
+	}
+
+	/*
+	 * Buffered reads from a channel, the buffer being refilled whenever the next
+	 * value is not entirely in it.
+	 */
+	private static final class Input {
+		private final FileChannel channel;
+		// on heap, for the strings to be decoded straight from its array
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+
+		Input(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		byte get() throws IOException {
+			return ensure(Byte.BYTES).get();
+		}
+
+		int getInt() throws IOException {
+			return ensure(Integer.BYTES).getInt();
+		}
+
+		long getLong() throws IOException {
+			return ensure(Long.BYTES).getLong();
+		}
+
+		double getDouble() throws IOException {
+			return ensure(Double.BYTES).getDouble();
+		}
+
+		UUID getUuid() throws IOException {
+			return new UUID(getLong(), getLong());
+		}
+
+		String getString() throws IOException {
+			int length = getInt();
+			if (length < 0) {
+				return null;
+			}
+			if (length <= BUFFER_SIZE) {
+				ByteBuffer filled = ensure(length);
+				int position = filled.position();
+				filled.position(position + length);
+				return new String(filled.array(), position, length, StandardCharsets.UTF_8);
+			}
+			byte[] bytes = new byte[length];
+			int offset = 0;
+			while (offset < length) {
+				ByteBuffer filled = ensure(1);
+				int chunk = Math.min(length - offset, filled.remaining());
+				filled.get(bytes, offset, chunk);
+				offset += chunk;
+			}
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private ByteBuffer ensure(int bytes) throws IOException {
+			if (buffer.remaining() >= bytes) {
+				return buffer;
+			}
+			buffer.compact();
+			while (buffer.position() < bytes) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException("Truncated user snapshot");
+				}
+			}
+			return buffer.flip();
+		}
+	}
+}
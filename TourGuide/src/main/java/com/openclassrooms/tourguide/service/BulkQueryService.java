@@ -0,0 +1,145 @@
+package com.openclassrooms.tourguide.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.tourguide.dto.BulkResultDto;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Runs the same asynchronous query for many users at once, on behalf of the
+ * bulk endpoints.
+ * <p>
+ * At most {@code parallelism} queries are in flight at a time: the next user is
+ * only started once the result of a previous one has been handed to the
+ * consumer. A slow consumer, such as a client reading the response slowly,
+ * therefore slows the queries down instead of letting the results pile up.
+ * Results are handed over in completion order, on the calling thread. A query
+ * still running after {@code userTimeout} is handed over as a failure and its
+ * late result dropped.
+ */
+@Service
+public class BulkQueryService {
+	public static final int DEFAULT_PARALLELISM = 64;
+	public static final Duration DEFAULT_USER_TIMEOUT = Duration.ofSeconds(30);
+	static final String UNKNOWN_USER = "Unknown user";
+
+	private final TourGuideService tourGuideService;
+	private final int parallelism;
+	private final Duration userTimeout;
+
+	// a result, tagged with the number of the query it answers
+	private record Completion<T>(long id, BulkResultDto<T> result) {
+	}
+
+	// a query in flight, timed out once past its deadline in System.nanoTime
+	private record Pending(String userName, long deadline) {
+	}
+
+	public BulkQueryService(TourGuideService tourGuideService, int parallelism) {
+		this(tourGuideService, parallelism, DEFAULT_USER_TIMEOUT);
+	}
+
+	/**
+	 * @param tourGuideService the service resolving the users
+	 * @param parallelism      the maximum number of queries in flight, at least 1
+	 * @param userTimeout      how long the query of one user may run before it is
+	 *                         reported as failed, positive
+	 */
+	@Autowired
+	public BulkQueryService(TourGuideService tourGuideService,
+			@Value("${tourguide.bulk.parallelism:" + DEFAULT_PARALLELISM + "}") int parallelism,
+			@Value("${tourguide.bulk.user-timeout:PT30S}") Duration userTimeout) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1 : " + parallelism);
+		}
+		if (userTimeout.isNegative() || userTimeout.isZero()) {
+			throw new IllegalArgumentException("User timeout must be positive : " + userTimeout);
+		}
+		this.tourGuideService = tourGuideService;
+		this.parallelism = parallelism;
+		this.userTimeout = userTimeout;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Runs {@code query} for each named user and hands every result to
+	 * {@code consumer} as soon as it is available. Unknown users, failed queries
+	 * and queries still running after the user timeout are handed over as
+	 * failures, so there is exactly one result per name, and a query that never
+	 * completes does not hold the calling thread beyond its timeout.
+	 *
+	 * @param <T>       the type of the results
+	 * @param userNames the names of the users, duplicates being queried again
+	 * @param query     the asynchronous query to run for each user
+	 * @param consumer  the consumer of the results, called on the calling thread
+	 * @throws InterruptedException if interrupted while waiting for a result, the
+	 *                              queries in flight then completing unobserved
+	 */
+	public <T> void forEach(List<String> userNames, Function<User, CompletableFuture<T>> query,
+			Consumer<BulkResultDto<T>> consumer) throws InterruptedException {
+		BlockingQueue<Completion<T>> completed = new LinkedBlockingQueue<>();
+		// in start order, hence in deadline order
+		Map<Long, Pending> inFlight = new LinkedHashMap<>();
+		Iterator<String> names = userNames.iterator();
+		long nextId = 0;
+		while (names.hasNext() || !inFlight.isEmpty()) {
+			while (inFlight.size() < parallelism && names.hasNext()) {
+				String userName = names.next();
+				inFlight.put(nextId, new Pending(userName, System.nanoTime() + userTimeout.toNanos()));
+				start(nextId++, userName, query, completed);
+			}
+			Map.Entry<Long, Pending> oldest = inFlight.entrySet().iterator().next();
+			Completion<T> completion = completed.poll(oldest.getValue().deadline() - System.nanoTime(),
+					TimeUnit.NANOSECONDS);
+			if (completion == null) {
+				inFlight.remove(oldest.getKey());
+				consumer.accept(BulkResultDto.failure(oldest.getValue().userName(), "Timed out after " + userTimeout));
+			} else if (inFlight.remove(completion.id()) != null) {
+				// otherwise already reported as timed out
+				consumer.accept(completion.result());
+			}
+		}
+	}
+
+	private <T> void start(long id, String userName, Function<User, CompletableFuture<T>> query,
+			BlockingQueue<Completion<T>> completed) {
+		User user = tourGuideService.getUser(userName);
+		if (user == null) {
+			completed.add(new Completion<>(id, BulkResultDto.failure(userName, UNKNOWN_USER)));
+			return;
+		}
+		CompletableFuture<T> future;
+		try {
+			future = query.apply(user);
+		} catch (RuntimeException e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+		future.whenComplete((result, failure) -> completed.add(new Completion<>(id, failure == null
+				? BulkResultDto.success(userName, result)
+				: BulkResultDto.failure(userName, describe(failure)))));
+	}
+
+	private static String describe(Throwable failure) {
+		Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause()
+				: failure;
+		return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+	}
+}
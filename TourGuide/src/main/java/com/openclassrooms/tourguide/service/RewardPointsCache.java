@@ -0,0 +1,94 @@
+package com.openclassrooms.tourguide.service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import com.openclassrooms.tourguide.provider.RewardCentralPointsProvider;
+import com.openclassrooms.tourguide.provider.RewardPointsProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import rewardCentral.RewardCentral;
+
+/**
+ * Cache of the reward points returned by a {@link RewardPointsProvider}, keyed
+ * by attraction and user.
+ * <p>
+ * Entries are evicted once the maximum size is reached or when their time to
+ * live expires. Concurrent misses on the same key are coalesced: only the first
+ * caller queries the provider, the others wait for its result.
+ */
+public class RewardPointsCache implements MeterBinder {
+	public static final long DEFAULT_MAXIMUM_SIZE = 1_000_000;
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(1);
+
+	private final RewardPointsProvider rewardPointsProvider;
+	private final AsyncCache<RewardKey, Integer> cache;
+
+	private record RewardKey(UUID attractionId, UUID userId) {
+	}
+
+	public RewardPointsCache(RewardCentral rewardCentral) {
+		this(new RewardCentralPointsProvider(rewardCentral));
+	}
+
+	public RewardPointsCache(RewardCentral rewardCentral, long maximumSize, Duration timeToLive) {
+		this(new RewardCentralPointsProvider(rewardCentral), maximumSize, timeToLive);
+	}
+
+	public RewardPointsCache(RewardPointsProvider rewardPointsProvider) {
+		this(rewardPointsProvider, DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE);
+	}
+
+	public RewardPointsCache(RewardPointsProvider rewardPointsProvider, long maximumSize, Duration timeToLive) {
+		this.rewardPointsProvider = rewardPointsProvider;
+		this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats()
+				.buildAsync();
+	}
+
+	/**
+	 * Returns the reward points of an attraction for a user, querying the
+	 * provider on the calling thread only on a cache miss.
+	 *
+	 * @param attractionId the attraction id
+	 * @param userId       the user id
+	 * @return the number of reward points
+	 */
+	public int getRewardPoints(UUID attractionId, UUID userId) {
+		CompletableFuture<Integer> loader = new CompletableFuture<>();
+		CompletableFuture<Integer> points = cache.get(new RewardKey(attractionId, userId), (key, executor) -> loader);
+		if (points == loader) {
+			// this caller won the miss, the upstream call runs outside of the cache lock
+			try {
+				loader.complete(rewardPointsProvider.getAttractionRewardPoints(attractionId, userId));
+			} catch (RuntimeException e) {
+				loader.completeExceptionally(e);
+			}
+		}
+		return points.join();
+	}
+
+	/**
+	 * Registers the hit, miss, eviction and size meters of the cache.
+	 *
+	 * @param meterRegistry the registry to bind to
+	 */
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "rewardPoints");
+	}
+
+	public CacheStats stats() {
+		return cache.synchronous().stats();
+	}
+
+	public void invalidateAll() {
+		cache.synchronous().invalidateAll();
+	}
+}
@@ -1,75 +1,340 @@
 package com.openclassrooms.tourguide.service;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import com.openclassrooms.tourguide.attraction.AttractionCatalog;
+import com.openclassrooms.tourguide.attraction.AttractionIndex;
+import com.openclassrooms.tourguide.attraction.DistanceCalculator;
+import com.openclassrooms.tourguide.config.ExecutionStrategy;
+import com.openclassrooms.tourguide.config.ExecutorSettings;
 import com.openclassrooms.tourguide.dto.NearByAttractionDto;
+import com.openclassrooms.tourguide.metrics.OutcomeTimer;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.RewardPointsProvider;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
+import com.openclassrooms.tourguide.user.VisitedLocationHistory;
 
-import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
-import rewardCentral.RewardCentral;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service responsible for calculating and assigning rewards to users based on
  * their proximity to attractions and visited locations.
  */
+@Slf4j
 @Service
-public class RewardsService {
-	private static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+public class RewardsService implements MeterBinder {
+	public static final int REWARD_BATCH_SIZE = 1000;
+	private static final String CALCULATION_TIMER = "tourguide.rewards.calculation";
+	private static final String BATCH_TIMER = "tourguide.rewards.batch";
 
 	// proximity in miles
 	private int defaultProximityBuffer = 10;
 	private int proximityBuffer = defaultProximityBuffer;
 	private int attractionProximityRange = 200;
-	private final GpsUtil gpsUtil;
-	private final RewardCentral rewardsCentral;
-	private long limit = 5;
-	private final ExecutorService executorService = Executors.newFixedThreadPool(200);
+	private final AttractionCatalog attractionCatalog;
+	private final RewardPointsCache rewardPointsCache;
+	private int nearestAttractionLimit = 5;
+	private final ExecutorSettings executorSettings;
+	private final ExecutorService executorService;
+	// index of the attraction lists passed in that are not the catalog one
+	private volatile AttractionIndex attractionIndex = AttractionIndex.of(List.of());
+	// catalog index the rewarded positions were calculated against
+	private volatile AttractionIndex rewardedIndex;
+	// per user, position in the location history up to which rewards are calculated
+	private final ConcurrentMap<UUID, Integer> rewardedPositions = new ConcurrentHashMap<>();
+	private volatile OutcomeTimer calculationTimer = OutcomeTimer.noop(CALCULATION_TIMER);
+	private volatile OutcomeTimer batchTimer = OutcomeTimer.noop(BATCH_TIMER);
 
-	public RewardsService(GpsUtil gpsUtil, RewardCentral rewardCentral) {
-		this.gpsUtil = gpsUtil;
-		this.rewardsCentral = rewardCentral;
+	@Autowired
+	public RewardsService(AttractionCatalog attractionCatalog, RewardPointsCache rewardPointsCache,
+			ExecutionStrategy executionStrategy, @Qualifier("rewards") ExecutorSettings executorSettings) {
+		this.attractionCatalog = attractionCatalog;
+		this.rewardPointsCache = rewardPointsCache;
+		this.executorSettings = executorSettings;
+		this.executorService = executionStrategy.newExecutor("rewards", executorSettings);
+	}
+
+	/**
+	 * Starts building a service outside of Spring, as the tests and benchmarks
+	 * do, with its own attraction catalog and reward points cache. Unless set,
+	 * the service runs on a fixed pool sized by {@link ExecutorSettings#DEFAULT}.
+	 *
+	 * @param locationProvider     the provider of the attractions
+	 * @param rewardPointsProvider the provider of the reward points
+	 * @return the builder
+	 */
+	public static Builder builder(LocationProvider locationProvider, RewardPointsProvider rewardPointsProvider) {
+		return new Builder(locationProvider, rewardPointsProvider);
+	}
+
+	/**
+	 * Builder of a {@link RewardsService}, see
+	 * {@link RewardsService#builder(LocationProvider, RewardPointsProvider)}.
+	 */
+	public static final class Builder {
+		private final LocationProvider locationProvider;
+		private final RewardPointsProvider rewardPointsProvider;
+		private ExecutionStrategy executionStrategy = ExecutionStrategy.FIXED_POOL;
+		private ExecutorSettings executorSettings = ExecutorSettings.DEFAULT;
+
+		private Builder(LocationProvider locationProvider, RewardPointsProvider rewardPointsProvider) {
+			this.locationProvider = locationProvider;
+			this.rewardPointsProvider = rewardPointsProvider;
+		}
+
+		public Builder executionStrategy(ExecutionStrategy executionStrategy) {
+			this.executionStrategy = executionStrategy;
+			return this;
+		}
+
+		public Builder executorSettings(ExecutorSettings executorSettings) {
+			this.executorSettings = executorSettings;
+			return this;
+		}
+
+		/**
+		 * Creates the service, loading the attractions right away.
+		 *
+		 * @return the service
+		 */
+		public RewardsService build() {
+			return new RewardsService(new AttractionCatalog(locationProvider),
+					new RewardPointsCache(rewardPointsProvider), executionStrategy, executorSettings);
+		}
+	}
+
+	/**
+	 * Stops accepting reward calculations and waits for the running ones to
+	 * complete, for at most the drain timeout of the executor.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (!executorSettings.drain(executorService)) {
+			log.warn("Reward calculations still running after {}, interrupted", executorSettings.drainTimeout());
+		}
+	}
+
+	/**
+	 * Registers the reward calculation timers and the metrics of the rewards
+	 * executor.
+	 *
+	 * @param meterRegistry the registry to bind to
+	 */
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		calculationTimer = OutcomeTimer.register(meterRegistry, CALCULATION_TIMER,
+				"Time to calculate the rewards of a user");
+		batchTimer = OutcomeTimer.register(meterRegistry, BATCH_TIMER,
+				"Time to calculate the rewards of a chunk of users");
+		new ExecutorServiceMetrics(executorService, "rewards", List.of()).bindTo(meterRegistry);
+	}
+
+	/**
+	 * @return the attraction catalog shared with the other services
+	 */
+	public AttractionCatalog getAttractionCatalog() {
+		return attractionCatalog;
 	}
 
 	public void setProximityBuffer(int proximityBuffer) {
 		this.proximityBuffer = proximityBuffer;
+		rewardedPositions.clear();
 	}
 
 	public void setDefaultProximityBuffer() {
-		proximityBuffer = defaultProximityBuffer;
+		setProximityBuffer(defaultProximityBuffer);
 	}
 
 	/**
 	 * Asynchronously calculates and assigns rewards for a given user based on their
 	 * visited locations.
+	 * <p>
+	 * Only the locations added since the previous calculation for the user are
+	 * evaluated, against the nearby attractions the user has not been rewarded
+	 * for yet.
 	 *
 	 * @param user the user for whom rewards should be calculated
 	 * @return a {@link CompletableFuture} that completes when reward calculation is
 	 *         done
 	 */
 	public CompletableFuture<Void> calculateRewards(User user) {
-		CompletableFuture<List<VisitedLocation>> futureUserLocations = CompletableFuture
-				.supplyAsync(() -> new CopyOnWriteArrayList<>(user.getVisitedLocations()), executorService);
-		CompletableFuture<List<Attraction>> futureAttractions = CompletableFuture.supplyAsync(gpsUtil::getAttractions,
-				executorService);
+		OutcomeTimer timer = calculationTimer;
+		Timer.Sample sample = timer.start();
+		return calculateRewardsOf(List.of(user)).whenComplete((calculated, failure) -> timer.stop(sample, failure));
+	}
+
+	/**
+	 * Asynchronously calculates and assigns rewards for many users at once, with
+	 * the same result as {@link #calculateRewards(User)} for each of them.
+	 * <p>
+	 * The users are split into chunks of {@value #REWARD_BATCH_SIZE}, each
+	 * evaluated in a single task instead of one per user. The new locations of a
+	 * chunk are checked against the attraction index in grid cell order, a
+	 * location shared by several users being checked once, and only the reward
+	 * points of the attractions actually reached are looked up, concurrently.
+	 *
+	 * @param users the users for whom rewards should be calculated
+	 * @return a {@link CompletableFuture} that completes when the rewards of all
+	 *         the users are calculated
+	 */
+	public CompletableFuture<Void> calculateRewards(List<User> users) {
+		List<CompletableFuture<Void>> chunks = new ArrayList<>();
+		for (int from = 0; from < users.size(); from += REWARD_BATCH_SIZE) {
+			List<User> chunk = users.subList(from, Math.min(users.size(), from + REWARD_BATCH_SIZE));
+			OutcomeTimer timer = batchTimer;
+			Timer.Sample sample = timer.start();
+			chunks.add(calculateRewardsOf(chunk).whenComplete((calculated, failure) -> timer.stop(sample, failure)));
+		}
+		return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]));
+	}
+
+	/*
+	 * Rewards of a chunk, which are only assigned, and the rewarded positions
+	 * moved, once all their points are known: if a lookup fails, the locations
+	 * of the chunk are evaluated again on the next calculation.
+	 */
+	private CompletableFuture<Void> calculateRewardsOf(List<User> users) {
+		return CompletableFuture.supplyAsync(() -> evaluate(users), executorService).thenCompose(evaluation -> {
+			List<PendingReward> pendingRewards = evaluation.pendingRewards();
+			List<CompletableFuture<Integer>> points = new ArrayList<>(pendingRewards.size());
+			for (PendingReward pending : pendingRewards) {
+				points.add(CompletableFuture.supplyAsync(
+						() -> getRewardPoints(pending.attraction(), pending.user()), executorService));
+			}
+			return CompletableFuture.allOf(points.toArray(new CompletableFuture[0])).thenRun(() -> {
+				for (int i = 0; i < pendingRewards.size(); i++) {
+					PendingReward pending = pendingRewards.get(i);
+					pending.user().addUserReward(
+							new UserReward(pending.visitedLocation(), pending.attraction(), points.get(i).join()));
+				}
+				for (int i = 0; i < users.size(); i++) {
+					rewardedPositions.merge(users.get(i).getUserId(), evaluation.evaluatedTo()[i], Math::max);
+				}
+			});
+		});
+	}
+
+	/*
+	 * A new location of the user at userIndex in the chunk, position being its
+	 * rank among the new locations of the user.
+	 */
+	private record NewLocation(int userIndex, int position, VisitedLocation visitedLocation, int cell) {
+	}
+
+	/*
+	 * A reward to assign once its points are known.
+	 */
+	private record PendingReward(int userIndex, int position, int attractionIndex, User user,
+			VisitedLocation visitedLocation, Attraction attraction) {
+	}
+
+	private record Evaluation(List<PendingReward> pendingRewards, int[] evaluatedTo) {
+	}
 
-		return CompletableFuture.runAsync(
-				() -> futureUserLocations.join().stream().forEach(visitedLocation -> futureAttractions.join().stream()
-						.filter(attraction -> isNearAttraction(visitedLocation, attraction))
-						.forEach(attraction -> user.addUserReward(
-								new UserReward(visitedLocation, attraction, getRewardPoints(attraction, user))))),
-				executorService);
+	/*
+	 * Finds the rewards earned by the new locations of the users, keeping for
+	 * each user and attraction the oldest location near it as a calculation per
+	 * user does.
+	 */
+	private Evaluation evaluate(List<User> users) {
+		AttractionIndex index = getCatalogIndex();
+		int[] evaluatedTo = new int[users.size()];
+		List<NewLocation> newLocations = new ArrayList<>();
+		for (int i = 0; i < users.size(); i++) {
+			User user = users.get(i);
+			VisitedLocationHistory history = user.getVisitedLocationHistory();
+			int from = rewardedPositions.getOrDefault(user.getUserId(), 0);
+			evaluatedTo[i] = history.getAppendedCount();
+			List<VisitedLocation> locations = history.between(from, evaluatedTo[i]);
+			for (int k = 0; k < locations.size(); k++) {
+				VisitedLocation visitedLocation = locations.get(k);
+				newLocations.add(new NewLocation(i, k, visitedLocation, index.cellOf(visitedLocation.location)));
+			}
+		}
+		// identical locations end up next to each other and are searched once
+		newLocations.sort(Comparator.comparingInt(NewLocation::cell)
+				.thenComparingDouble(newLocation -> newLocation.visitedLocation().location.latitude)
+				.thenComparingDouble(newLocation -> newLocation.visitedLocation().location.longitude));
 
+		Map<Long, PendingReward> pendingRewards = new HashMap<>();
+		Location searched = null;
+		int[] nearby = null;
+		for (NewLocation newLocation : newLocations) {
+			Location location = newLocation.visitedLocation().location;
+			if (searched == null || location.latitude != searched.latitude
+					|| location.longitude != searched.longitude) {
+				nearby = index.indexesWithin(location, proximityBuffer);
+				searched = location;
+			}
+			User user = users.get(newLocation.userIndex());
+			for (int attractionIndex : nearby) {
+				Attraction attraction = index.getAttractions().get(attractionIndex);
+				if (!user.hasRewardFor(attraction)) {
+					PendingReward candidate = new PendingReward(newLocation.userIndex(), newLocation.position(),
+							attractionIndex, user, newLocation.visitedLocation(), attraction);
+					pendingRewards.merge((long) newLocation.userIndex() * index.size() + attractionIndex, candidate,
+							(current, other) -> other.position() < current.position() ? other : current);
+				}
+			}
+		}
+		List<PendingReward> ordered = new ArrayList<>(pendingRewards.values());
+		ordered.sort(Comparator.comparingInt(PendingReward::userIndex).thenComparingInt(PendingReward::position)
+				.thenComparingInt(PendingReward::attractionIndex));
+		return new Evaluation(ordered, evaluatedTo);
+	}
+
+	/**
+	 * Returns the index of the attraction catalog, forgetting the rewarded
+	 * positions when the catalog has been refreshed since they were calculated.
+	 */
+	private AttractionIndex getCatalogIndex() {
+		AttractionIndex index = attractionCatalog.getIndex();
+		if (index != rewardedIndex) {
+			rewardedIndex = index;
+			// locations already evaluated may be near the new attractions
+			rewardedPositions.clear();
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the spatial index of the given attractions: the catalog one for the
+	 * catalog attractions, otherwise the current one as long as the attraction
+	 * set has not changed.
+	 */
+	private AttractionIndex getAttractionIndex(List<Attraction> attractions) {
+		AttractionCatalog.Snapshot snapshot = attractionCatalog.getSnapshot();
+		if (attractions == snapshot.attractions()) {
+			return snapshot.index();
+		}
+		AttractionIndex index = attractionIndex;
+		if (!index.isBuiltFrom(attractions)) {
+			index = AttractionIndex.of(attractions);
+			attractionIndex = index;
+		}
+		return index;
 	}
 
 	/**
@@ -84,41 +349,32 @@ public class RewardsService {
 		return getDistance(attraction, location) < attractionProximityRange;
 	}
 
-	private boolean isNearAttraction(VisitedLocation visitedLocation, Attraction attraction) {
-		return getDistance(attraction, visitedLocation.location) < proximityBuffer;
-	}
-
 	/**
 	 * Retrieves the reward points associated with a given attraction for a specific
-	 * user.
+	 * user, through the {@link RewardPointsCache}.
 	 *
 	 * @param attraction the attraction
 	 * @param user       the user
 	 * @return the number of reward points
 	 */
 	public int getRewardPoints(Attraction attraction, User user) {
-		return rewardsCentral.getAttractionRewardPoints(attraction.attractionId, user.getUserId());
+		return rewardPointsCache.getRewardPoints(attraction.attractionId, user.getUserId());
 	}
 
 	/**
-	 * Calculates the distance in statute miles between two geographic locations
-	 * using the Haversine formula.
+	 * Calculates the distance in statute miles between two geographic locations.
 	 *
 	 * @param loc1 the first location
 	 * @param loc2 the second location
 	 * @return the distance in statute miles
+	 * @see DistanceCalculator#getDistance(Location, Location)
 	 */
 	public double getDistance(Location loc1, Location loc2) {
-		double lat1 = Math.toRadians(loc1.latitude);
-		double lon1 = Math.toRadians(loc1.longitude);
-		double lat2 = Math.toRadians(loc2.latitude);
-		double lon2 = Math.toRadians(loc2.longitude);
-
-		double angle = Math
-				.acos(Math.sin(lat1) * Math.sin(lat2) + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
+		return DistanceCalculator.getDistance(loc1, loc2);
+	}
 
-		double nauticalMiles = 60 * Math.toDegrees(angle);
-		return STATUTE_MILES_PER_NAUTICAL_MILE * nauticalMiles;
+	public int getNearestAttractionLimit() {
+		return nearestAttractionLimit;
 	}
 
 	/**
@@ -130,9 +386,20 @@ public class RewardsService {
 	 * @return a list of the 5 nearest attractions
 	 */
 	public List<Attraction> find5NearestAttraction(Location location, List<Attraction> attractions) {
+		return findNearestAttractions(location, attractions, nearestAttractionLimit);
+	}
 
-		return attractions.stream().sorted(Comparator.comparingDouble(attraction -> getDistance(location, attraction)))
-				.limit(limit).toList();
+	/**
+	 * Finds the closest attractions to a given location from a list of
+	 * attractions, without sorting the whole list.
+	 *
+	 * @param location    the location
+	 * @param attractions the list of all attractions
+	 * @param limit       the maximum number of attractions to return
+	 * @return the nearest attractions, closest first
+	 */
+	public List<Attraction> findNearestAttractions(Location location, List<Attraction> attractions, int limit) {
+		return getAttractionIndex(attractions).findNearest(location, limit);
 	}
 
 	/**
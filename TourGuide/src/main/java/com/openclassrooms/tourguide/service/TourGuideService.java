@@ -1,31 +1,42 @@
 package com.openclassrooms.tourguide.service;
 
-import java.security.SecureRandom;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Random;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import com.openclassrooms.tourguide.config.ExecutionStrategy;
+import com.openclassrooms.tourguide.config.ExecutorSettings;
+import com.openclassrooms.tourguide.dto.NearByAttractionDto;
+import com.openclassrooms.tourguide.dto.UserLocationDto;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.helper.InternalUserSettings;
+import com.openclassrooms.tourguide.metrics.OutcomeTimer;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.LocationLog;
+import com.openclassrooms.tourguide.repository.UserRepository;
 import com.openclassrooms.tourguide.tracker.Tracker;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
 
-import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
-import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import tripPricer.Provider;
 import tripPricer.TripPricer;
@@ -37,84 +48,312 @@ import tripPricer.TripPricer;
  */
 @Slf4j
 @Service
-public class TourGuideService {
-	private final GpsUtil gpsUtil;
+public class TourGuideService implements MeterBinder {
+	private static final String TRACKING_TIMER = "tourguide.tracking";
+
+	private final LocationProvider locationProvider;
 	private final RewardsService rewardsService;
-	private final TripPricer tripPricer = new TripPricer();
+	private final TripDealGateway tripDealGateway;
+	// Database connection will be used for external users, but for testing purposes
+	// internal users are provided and stored in memory
+	private final UserRepository userRepository;
+	// null when the visited locations are only kept on the heap
+	private final LocationLog locationLog;
 	public final Tracker tracker;
 	boolean testMode = true;
-	private final ExecutorService executorService = Executors.newFixedThreadPool(200);
-	private Random random = new SecureRandom();
+	private final ExecutorSettings executorSettings;
+	private final ExecutorService executorService;
+	private CompletableFuture<Void> internalUsersInitialization = CompletableFuture.completedFuture(null);
+	private volatile OutcomeTimer trackingTimer = OutcomeTimer.noop(TRACKING_TIMER);
 
-	public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService) {
-		this.gpsUtil = gpsUtil;
+	/**
+	 * @param locationLog the log the tracked locations are appended to, and the
+	 *                    visited locations of the users restored from once they
+	 *                    are initialized, empty to keep them on the heap only
+	 */
+	@Autowired
+	public TourGuideService(LocationProvider locationProvider, RewardsService rewardsService,
+			TripDealGateway tripDealGateway, ExecutionStrategy executionStrategy, UserRepository userRepository,
+			TrackerSettings trackerSettings, @Qualifier("tourGuide") ExecutorSettings executorSettings,
+			InternalUserSettings internalUserSettings, Optional<LocationLog> locationLog) {
+		this.locationProvider = locationProvider;
 		this.rewardsService = rewardsService;
+		this.tripDealGateway = tripDealGateway;
+		this.userRepository = userRepository;
+		this.locationLog = locationLog.orElse(null);
+		this.executorSettings = executorSettings;
+		this.executorService = executionStrategy.newExecutor("tour-guide", executorSettings);
 
 		Locale.setDefault(Locale.US);
 
-		if (testMode) {
+		if (userRepository.count() > 0) {
+			// restored from a snapshot, which already holds their visited locations
+			log.debug("{} users already in the repository, internal users not generated", userRepository.count());
+			restoreVisitedLocations(true);
+		} else if (testMode) {
 			log.debug("TestMode enabled");
 			log.debug("Initializing users");
-			initializeInternalUsers();
-			log.debug("Finished initializing users");
+			if (internalUserSettings.background()) {
+				internalUsersInitialization = CompletableFuture.runAsync(
+						() -> initializeInternalUsers(internalUserSettings),
+						runnable -> Thread.ofPlatform().daemon().name("internal-users").start(runnable));
+			} else {
+				initializeInternalUsers(internalUserSettings);
+				log.debug("Finished initializing users");
+			}
+		} else {
+			restoreVisitedLocations(false);
 		}
-		tracker = new Tracker(this);
+		tracker = new Tracker(this, executionStrategy, trackerSettings);
 		addShutDownHook();
 	}
 
+	/**
+	 * Starts building a service outside of Spring, as the tests and benchmarks
+	 * do. Unless set, the service prices the trips with {@link TripPricer}, runs
+	 * on a fixed pool, keeps its users in an {@link InMemoryUserRepository}
+	 * sized for the internal users, takes the defaults of the settings records
+	 * and has no location log.
+	 *
+	 * @param locationProvider the provider of the user locations
+	 * @param rewardsService   the rewards service
+	 * @return the builder
+	 */
+	public static Builder builder(LocationProvider locationProvider, RewardsService rewardsService) {
+		return new Builder(locationProvider, rewardsService);
+	}
+
+	/**
+	 * Builder of a {@link TourGuideService}, see
+	 * {@link TourGuideService#builder(LocationProvider, RewardsService)}.
+	 */
+	public static final class Builder {
+		private final LocationProvider locationProvider;
+		private final RewardsService rewardsService;
+		private TripDealGateway tripDealGateway;
+		private ExecutionStrategy executionStrategy = ExecutionStrategy.FIXED_POOL;
+		private UserRepository userRepository;
+		private TrackerSettings trackerSettings = TrackerSettings.DEFAULT;
+		private ExecutorSettings executorSettings = ExecutorSettings.DEFAULT;
+		private InternalUserSettings internalUserSettings = InternalUserSettings.DEFAULT;
+		private LocationLog locationLog;
+
+		private Builder(LocationProvider locationProvider, RewardsService rewardsService) {
+			this.locationProvider = locationProvider;
+			this.rewardsService = rewardsService;
+		}
+
+		public Builder tripDealGateway(TripDealGateway tripDealGateway) {
+			this.tripDealGateway = tripDealGateway;
+			return this;
+		}
+
+		public Builder executionStrategy(ExecutionStrategy executionStrategy) {
+			this.executionStrategy = executionStrategy;
+			return this;
+		}
+
+		public Builder userRepository(UserRepository userRepository) {
+			this.userRepository = userRepository;
+			return this;
+		}
+
+		public Builder trackerSettings(TrackerSettings trackerSettings) {
+			this.trackerSettings = trackerSettings;
+			return this;
+		}
+
+		public Builder executorSettings(ExecutorSettings executorSettings) {
+			this.executorSettings = executorSettings;
+			return this;
+		}
+
+		public Builder internalUserSettings(InternalUserSettings internalUserSettings) {
+			this.internalUserSettings = internalUserSettings;
+			return this;
+		}
+
+		public Builder locationLog(LocationLog locationLog) {
+			this.locationLog = locationLog;
+			return this;
+		}
+
+		/**
+		 * Creates the service, which generates the internal users and starts
+		 * tracking them.
+		 *
+		 * @return the service
+		 */
+		public TourGuideService build() {
+			return new TourGuideService(locationProvider, rewardsService,
+					tripDealGateway != null ? tripDealGateway : new TripDealGateway(new TripPricer()),
+					executionStrategy,
+					userRepository != null ? userRepository
+							: new InMemoryUserRepository(InternalTestHelper.getInternalUserNumber()),
+					trackerSettings, executorSettings, internalUserSettings, Optional.ofNullable(locationLog));
+		}
+	}
+
+	/**
+	 * Registers the tracking timer and the metrics of the tour guide executor and
+	 * of the tracker.
+	 *
+	 * @param meterRegistry the registry to bind to
+	 */
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		trackingTimer = OutcomeTimer.register(meterRegistry, TRACKING_TIMER,
+				"Time to track the location of a user and calculate the rewards");
+		new ExecutorServiceMetrics(executorService, "tour-guide", List.of()).bindTo(meterRegistry);
+		tracker.bindTo(meterRegistry);
+	}
+
+	/**
+	 * Stops the tracker and waits for the running trackings to complete, for at
+	 * most the drain timeout of the executor.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		tracker.stopTracking();
+		if (!executorSettings.drain(executorService)) {
+			log.warn("Trackings still running after {}, interrupted", executorSettings.drainTimeout());
+		}
+	}
+
 	public List<UserReward> getUserRewards(User user) {
 		return user.getUserRewards();
 	}
 
 	public VisitedLocation getUserLocation(User user) {
-		return (!user.getVisitedLocations().isEmpty()) ? user.getLastVisitedLocation() : trackUserLocation(user).join();
+		return getUserLocationAsync(user).join();
+	}
+
+	/**
+	 * Returns the last visited location of the user, tracking it first when the
+	 * user has none yet.
+	 *
+	 * @param user the user
+	 * @return a {@link CompletableFuture} containing the {@link VisitedLocation},
+	 *         already completed when the user has a location
+	 */
+	public CompletableFuture<VisitedLocation> getUserLocationAsync(User user) {
+		if (user.getVisitedLocations().isEmpty()) {
+			return trackUserLocation(user);
+		}
+		return CompletableFuture.completedFuture(user.getLastVisitedLocation());
+	}
+
+	/**
+	 * Returns a page of the visited locations of the user, oldest first, read
+	 * from the location log when there is one, otherwise from the locations
+	 * retained on the heap.
+	 *
+	 * @param user the user
+	 * @param page the number of the page, from 0
+	 * @param size the number of locations per page
+	 * @return the locations of the page, empty past the last one
+	 */
+	public List<VisitedLocation> getVisitedLocations(User user, int page, int size) {
+		int from = (int) Math.min(Integer.MAX_VALUE, (long) page * size);
+		int to = (int) Math.min(Integer.MAX_VALUE, (long) from + size);
+		if (locationLog != null) {
+			return locationLog.read(user.getUserId(), from, to);
+		}
+		List<VisitedLocation> visitedLocations = user.getVisitedLocations();
+		return List.copyOf(
+				visitedLocations.subList(Math.min(from, visitedLocations.size()), Math.min(to, visitedLocations.size())));
 	}
 
 	public User getUser(String userName) {
-		return internalUserMap.get(userName);
+		return userRepository.findByUserName(userName).orElse(null);
 	}
 
 	public List<User> getAllUsers() {
-		return internalUserMap.values().stream().toList();
+		return List.copyOf(userRepository.findAll());
+	}
+
+	/**
+	 * Streams all users straight from the {@link UserRepository}, without copying
+	 * them into a list.
+	 *
+	 * @return a stream of the users
+	 */
+	public Stream<User> streamAllUsers() {
+		return userRepository.stream();
+	}
+
+	/**
+	 * Lazily streams the last visited location of every user straight from the
+	 * {@link UserRepository}, skipping the users never located, so that the whole
+	 * snapshot is never held in memory.
+	 *
+	 * @return a stream of the current locations
+	 */
+	public Stream<UserLocationDto> streamCurrentLocations() {
+		return streamAllUsers().filter(user -> !user.getVisitedLocations().isEmpty())
+				.map(user -> new UserLocationDto(user.getLastVisitedLocation()));
+	}
+
+	/**
+	 * @return a future completing once all the internal test users have been
+	 *         added, already completed unless they are generated in the
+	 *         background
+	 */
+	public CompletableFuture<Void> getInternalUsersInitialization() {
+		return internalUsersInitialization;
+	}
+
+	public int getUserCount() {
+		return userRepository.count();
 	}
 
 	public void addUser(User user) {
-		if (!internalUserMap.containsKey(user.getUserName())) {
-			internalUserMap.put(user.getUserName(), user);
-		}
+		userRepository.add(user);
 	}
 
 	public List<Provider> getTripDeals(User user) {
-		int cumulatativeRewardPoints = user.getUserRewards().stream().mapToInt(i -> i.getRewardPoints()).sum();
-		List<Provider> providers = tripPricer.getPrice(TRIP_PRICER_API_KEY, user.getUserId(),
-				user.getUserPreferences().getNumberOfAdults(), user.getUserPreferences().getNumberOfChildren(),
-				user.getUserPreferences().getTripDuration(), cumulatativeRewardPoints);
-		user.setTripDeals(providers);
-		return providers;
+		return getTripDealsAsync(user).join();
+	}
+
+	/**
+	 * Asynchronously retrieves the trip deals of the user through the
+	 * {@link TripDealGateway} and stores them on the user.
+	 *
+	 * @param user the user
+	 * @return a {@link CompletableFuture} containing the list of {@link Provider}
+	 */
+	public CompletableFuture<List<Provider>> getTripDealsAsync(User user) {
+		return tripDealGateway.getTripDeals(user).thenApply(providers -> {
+			user.setTripDeals(providers);
+			return providers;
+		});
 	}
 
 	/**
 	 * Asynchronously tracks the user's location and calculates rewards based on
 	 * their new position.
 	 * <p>
+	 * The returned future completes once the new location has been stored and the
+	 * rewards have been calculated, without blocking any thread while waiting for
+	 * the intermediate steps.
 	 * 
 	 * @param user the user whose location is to be tracked
 	 * @return a {@link CompletableFuture} containing the {@link VisitedLocation}
 	 */
 	public CompletableFuture<VisitedLocation> trackUserLocation(User user) {
-
-		CompletableFuture<VisitedLocation> futureVisitedLocation = CompletableFuture
-				.supplyAsync(() -> gpsUtil.getUserLocation(user.getUserId()), executorService);
-
-		CompletableFuture<Void> futureAddToVisitedLocationAndReward = futureVisitedLocation
-				.thenAcceptAsync(user::addToVisitedLocations, executorService)
-
-				.thenRunAsync(() -> rewardsService.calculateRewards(user).join(), executorService);
-
-		futureAddToVisitedLocationAndReward.join();
-
-		return futureVisitedLocation;
-
+		OutcomeTimer timer = trackingTimer;
+		Timer.Sample sample = timer.start();
+		return CompletableFuture.supplyAsync(() -> locationProvider.getUserLocation(user.getUserId()), executorService)
+				.thenApply(visitedLocation -> {
+					if (locationLog != null) {
+						locationLog.append(visitedLocation);
+					}
+					user.addToVisitedLocations(visitedLocation);
+					return visitedLocation;
+				})
+				.thenCompose(visitedLocation -> rewardsService.calculateRewards(user)
+						.thenApply(rewardsCalculated -> visitedLocation))
+				.whenComplete((visitedLocation, failure) -> timer.stop(sample, failure));
 	}
 
 	/**
@@ -124,8 +363,35 @@ public class TourGuideService {
 	 * @return a list of the 5 nearest {@link Attraction} objects
 	 */
 	public List<Attraction> getNearByAttractions(VisitedLocation visitedLocation) {
-		return rewardsService.find5NearestAttraction(visitedLocation.location, gpsUtil.getAttractions());
+		return getNearByAttractions(visitedLocation, rewardsService.getNearestAttractionLimit());
+	}
 
+	/**
+	 * Retrieves the closest attractions to the user's current visited location.
+	 *
+	 * @param visitedLocation the user's most recent visited location
+	 * @param limit           the maximum number of attractions to return
+	 * @return a list of the nearest {@link Attraction} objects, closest first
+	 */
+	public List<Attraction> getNearByAttractions(VisitedLocation visitedLocation, int limit) {
+		return rewardsService.findNearestAttractions(visitedLocation.location,
+				rewardsService.getAttractionCatalog().getAttractions(), limit);
+	}
+
+	/**
+	 * Asynchronously builds the {@link NearByAttractionDto} of the attractions
+	 * closest to the user, looking the reward points up on the tour guide
+	 * executor.
+	 *
+	 * @param user  the user
+	 * @param limit the maximum number of attractions to return
+	 * @return a {@link CompletableFuture} containing the nearby attractions,
+	 *         closest first
+	 */
+	public CompletableFuture<List<NearByAttractionDto>> getNearByAttractionsAsync(User user, int limit) {
+		return getUserLocationAsync(user).thenApplyAsync(visitedLocation -> rewardsService
+				.buildNearByAttractionDTO(visitedLocation, getNearByAttractions(visitedLocation, limit), user),
+				executorService);
 	}
 
 	private void addShutDownHook() {
@@ -143,46 +409,76 @@ public class TourGuideService {
 	 * Methods Below: For Internal Testing
 	 * 
 	 **********************************************************************************/
-	private static final String TRIP_PRICER_API_KEY = "test-server-api-key";
-	// Database connection will be used for external users, but for testing purposes
-	// internal users are provided and stored in memory
-	private final Map<String, User> internalUserMap = new HashMap<>();
-
-	private void initializeInternalUsers() {
-		IntStream.range(0, InternalTestHelper.getInternalUserNumber()).forEach(i -> {
-			String userName = "internalUser" + i;
-			String phone = "000";
-			String email = userName + "@tourGuide.com";
-			User user = new User(UUID.randomUUID(), userName, phone, email);
-			generateUserLocationHistory(user);
-
-			internalUserMap.put(userName, user);
+	/*
+	 * The logged locations of each user are restored before it is added, the
+	 * tracker being already running when the users are generated in the
+	 * background: a user it tracks has its whole history in order.
+	 */
+	private void initializeInternalUsers(InternalUserSettings internalUserSettings) {
+		int count = InternalTestHelper.getInternalUserNumber();
+		LongAdder restoredUsers = new LongAdder();
+		LongAdder restoredLocations = new LongAdder();
+		new InternalUserGenerator(internalUserSettings.seed()).generate(count, userRepository, user -> {
+			int restored = restoreVisitedLocations(user, false);
+			if (restored > 0) {
+				restoredUsers.increment();
+				restoredLocations.add(restored);
+			}
 		});
 
-		String result = "Created " + InternalTestHelper.getInternalUserNumber() + " internal test users.";
+		String result = "Created " + count + " internal test users.";
 		log.debug(result);
+		if (locationLog != null) {
+			log.info("Restored {} visited locations of {} users from the location log", restoredLocations.sum(),
+					restoredUsers.sum());
+		}
 	}
 
-	private void generateUserLocationHistory(User user) {
-		IntStream.range(0, 3).forEach(i -> user.addToVisitedLocations(new VisitedLocation(user.getUserId(),
-				new Location(generateRandomLatitude(), generateRandomLongitude()), getRandomTime())));
-	}
-
-	private double generateRandomLongitude() {
-		double leftLimit = -180;
-		double rightLimit = 180;
-		return leftLimit + random.nextDouble() * (rightLimit - leftLimit);
-	}
-
-	private double generateRandomLatitude() {
-		double leftLimit = -85.05112878;
-		double rightLimit = 85.05112878;
-		return leftLimit + random.nextDouble() * (rightLimit - leftLimit);
+	/*
+	 * Restores the visited locations of the users of the repository which are
+	 * in the location log.
+	 */
+	private void restoreVisitedLocations(boolean onlyNewer) {
+		if (locationLog == null) {
+			return;
+		}
+		int restoredUsers = 0;
+		long restoredLocations = 0;
+		for (UUID userId : locationLog.getUserIds()) {
+			User user = userRepository.findById(userId).orElse(null);
+			if (user == null) {
+				continue;
+			}
+			restoredLocations += restoreVisitedLocations(user, onlyNewer);
+			restoredUsers++;
+		}
+		log.info("Restored {} visited locations of {} users from the location log", restoredLocations, restoredUsers);
 	}
 
-	private Date getRandomTime() {
-		LocalDateTime localDateTime = LocalDateTime.now().minusDays(random.nextInt(30));
-		return Date.from(localDateTime.toInstant(ZoneOffset.UTC));
+	/*
+	 * Appends the most recent logged locations of a user to the ones it was
+	 * created with, up to the retention of its history, or only the ones more
+	 * recent than its last location when it was restored from a snapshot.
+	 * Rewards are not logged: they are calculated again on the next tracking.
+	 */
+	private int restoreVisitedLocations(User user, boolean onlyNewer) {
+		if (locationLog == null) {
+			return 0;
+		}
+		UUID userId = user.getUserId();
+		int count = locationLog.count(userId);
+		int retention = user.getVisitedLocationHistory().getRetention();
+		long after = onlyNewer && !user.getVisitedLocationHistory().isEmpty()
+				? user.getLastVisitedLocation().timeVisited.getTime()
+				: Long.MIN_VALUE;
+		int restored = 0;
+		for (VisitedLocation visitedLocation : locationLog.read(userId, Math.max(0, count - retention), count)) {
+			if (visitedLocation.timeVisited.getTime() > after) {
+				user.addToVisitedLocations(visitedLocation);
+				restored++;
+			}
+		}
+		return restored;
 	}
 
 }
@@ -0,0 +1,124 @@
+package com.openclassrooms.tourguide.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.tourguide.provider.TripPricerPricingProvider;
+import com.openclassrooms.tourguide.provider.TripPricingProvider;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+/**
+ * Gateway to a {@link TripPricingProvider}, {@link TripPricer} by default,
+ * running the pricing calls on a dedicated, bounded executor.
+ * <p>
+ * Results are cached per user, preferences and cumulated reward points until
+ * they expire, and concurrent requests for the same key share a single pricing
+ * call.
+ */
+public class TripDealGateway implements MeterBinder {
+	public static final int DEFAULT_POOL_SIZE = 20;
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+	private static final String TRIP_PRICER_API_KEY = "test-server-api-key";
+
+	private final TripPricingProvider tripPricingProvider;
+	private final ThreadPoolExecutor executor;
+	private final AsyncCache<TripDealKey, List<Provider>> cache;
+
+	// the priced inputs themselves, two preference sets never sharing their deals
+	private record TripDealKey(UUID userId, int adults, int children, int nightsStay, int cumulativeRewardPoints) {
+	}
+
+	public TripDealGateway(TripPricer tripPricer) {
+		this(new TripPricerPricingProvider(tripPricer));
+	}
+
+	public TripDealGateway(TripPricer tripPricer, int poolSize, int queueCapacity, Duration timeToLive) {
+		this(new TripPricerPricingProvider(tripPricer), poolSize, queueCapacity, timeToLive);
+	}
+
+	public TripDealGateway(TripPricingProvider tripPricingProvider) {
+		this(tripPricingProvider, DEFAULT_POOL_SIZE, DEFAULT_QUEUE_CAPACITY, DEFAULT_TIME_TO_LIVE);
+	}
+
+	public TripDealGateway(TripPricingProvider tripPricingProvider, int poolSize, int queueCapacity,
+			Duration timeToLive) {
+		this.tripPricingProvider = tripPricingProvider;
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "trip-pricer-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+		this.cache = Caffeine.newBuilder().expireAfterWrite(timeToLive).buildAsync();
+	}
+
+	/**
+	 * Asynchronously retrieves the trip deals matching the user's preferences and
+	 * cumulated reward points.
+	 * <p>
+	 * When the pricing executor is saturated, the returned future fails with a
+	 * {@link RejectedExecutionException} instead of the call throwing it.
+	 *
+	 * @param user the user
+	 * @return a {@link CompletableFuture} containing the list of {@link Provider}
+	 */
+	public CompletableFuture<List<Provider>> getTripDeals(User user) {
+		UserPreferences preferences = user.getUserPreferences();
+		int cumulativeRewardPoints = user.getUserRewards().stream().mapToInt(UserReward::getRewardPoints).sum();
+		TripDealKey key = new TripDealKey(user.getUserId(), preferences.getNumberOfAdults(),
+				preferences.getNumberOfChildren(), preferences.getTripDuration(), cumulativeRewardPoints);
+
+		return cache.get(key, (tripDealKey, cacheExecutor) -> price(tripDealKey));
+	}
+
+	/*
+	 * A rejected pricing call gives a failed future, which the cache drops, so
+	 * that the next request for the same key tries again.
+	 */
+	private CompletableFuture<List<Provider>> price(TripDealKey key) {
+		try {
+			return CompletableFuture.supplyAsync(() -> tripPricingProvider.getPrice(TRIP_PRICER_API_KEY, key.userId(),
+					key.adults(), key.children(), key.nightsStay(), key.cumulativeRewardPoints()), executor);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**
+	 * Registers the metrics of the pricing executor.
+	 *
+	 * @param meterRegistry the registry to bind to
+	 */
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		new ExecutorServiceMetrics(executor, "trip-pricer", List.of()).bindTo(meterRegistry);
+	}
+
+	/**
+	 * Stops accepting pricing calls, letting the running ones complete.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
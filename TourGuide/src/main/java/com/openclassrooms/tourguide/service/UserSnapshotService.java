@@ -0,0 +1,107 @@
+package com.openclassrooms.tourguide.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.openclassrooms.tourguide.metrics.OutcomeTimer;
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.repository.UserSnapshotStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes a {@link UserSnapshotStore} snapshot of all the users every
+ * {@code interval} on a background thread, and a last one on shutdown.
+ * <p>
+ * The users are written while the tracker and the services keep updating
+ * them. A failed snapshot keeps the previous file until the next one.
+ */
+@Slf4j
+public class UserSnapshotService implements MeterBinder {
+	private static final String SNAPSHOT_TIMER = "tourguide.users.snapshot";
+
+	private final UserRepository userRepository;
+	private final UserSnapshotStore userSnapshotStore;
+	private final ScheduledExecutorService scheduler;
+	private volatile OutcomeTimer snapshotTimer = OutcomeTimer.noop(SNAPSHOT_TIMER);
+
+	/**
+	 * @param userRepository    the users to write
+	 * @param userSnapshotStore the store of the snapshot
+	 * @param interval          the delay between two scheduled snapshots, zero
+	 *                          to only write one on shutdown
+	 */
+	public UserSnapshotService(UserRepository userRepository, UserSnapshotStore userSnapshotStore,
+			Duration interval) {
+		if (interval.isNegative()) {
+			throw new IllegalArgumentException("Snapshot interval must not be negative : " + interval);
+		}
+		this.userRepository = userRepository;
+		this.userSnapshotStore = userSnapshotStore;
+		if (interval.isZero()) {
+			this.scheduler = null;
+		} else {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(
+					runnable -> Thread.ofPlatform().daemon().name("user-snapshot").unstarted(runnable));
+			long intervalMillis = interval.toMillis();
+			scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, intervalMillis, intervalMillis,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Registers the snapshot timer.
+	 *
+	 * @param meterRegistry the registry to bind to
+	 */
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		snapshotTimer = OutcomeTimer.register(meterRegistry, SNAPSHOT_TIMER, "Time to write the snapshot of the users");
+	}
+
+	/**
+	 * Writes a snapshot of all the users now.
+	 *
+	 * @return the number of users written
+	 * @throws UncheckedIOException if the snapshot cannot be written
+	 */
+	public synchronized int snapshot() {
+		return snapshotTimer.record(() -> {
+			long start = System.nanoTime();
+			try {
+				int count = userSnapshotStore.write(userRepository.findAll());
+				log.debug("Wrote the snapshot of {} users to {} in {} ms", count, userSnapshotStore.getFile(),
+						TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				return count;
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot write the user snapshot to " + userSnapshotStore.getFile(), e);
+			}
+		});
+	}
+
+	private void scheduledSnapshot() {
+		try {
+			snapshot();
+		} catch (RuntimeException e) {
+			log.warn("User snapshot failed, keeping the previous one", e);
+		}
+	}
+
+	/**
+	 * Stops the scheduled snapshots and writes a last one.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+		scheduledSnapshot();
+	}
+}
@@ -1,26 +1,74 @@
 package com.openclassrooms.tourguide.tracker;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.lang3.time.StopWatch;
-
+import com.openclassrooms.tourguide.attraction.DistanceCalculator;
+import com.openclassrooms.tourguide.config.ExecutionStrategy;
+import com.openclassrooms.tourguide.config.ExecutorSettings;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
 
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Background thread tracking the location of every user.
+ * <p>
+ * Users are kept in a queue ordered by the time their next tracking is due.
+ * New users, discovered by a sweep of the repository once per interval, are
+ * spread evenly over the interval so that trackings do not come in bursts. A
+ * user who has not moved since the previous tracking has its interval doubled,
+ * up to the maximum interval, and goes back to the base interval as soon as it
+ * moves again. Due users are tracked in parallel, at most
+ * {@link TrackerSettings#maxConcurrency()} at a time.
+ */
 @Slf4j
-public class Tracker extends Thread {
-	private static final long TRACKING_POLLING_INTERVAL = TimeUnit.MINUTES.toSeconds(5);
-	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+public class Tracker extends Thread implements MeterBinder {
+	private final ExecutorService executorService;
 	private final TourGuideService tourGuideService;
-	private boolean stop = false;
+	private final TrackerSettings settings;
+	private final DelayQueue<ScheduledUser> schedule = new DelayQueue<>();
+	// only accessed by the tracker thread
+	private final Set<UUID> scheduledUserIds = new HashSet<>();
+	private final Semaphore permits;
+	private final AtomicLong trackedCount = new AtomicLong();
+	private volatile boolean stop = false;
+	// no-op until a registry is bound
+	private volatile Timer lagTimer = lagTimer(new CompositeMeterRegistry());
+	private volatile Timer cycleTimer = cycleTimer(new CompositeMeterRegistry());
 
 	public Tracker(TourGuideService tourGuideService) {
+		this(tourGuideService, ExecutionStrategy.FIXED_POOL);
+	}
+
+	public Tracker(TourGuideService tourGuideService, ExecutionStrategy executionStrategy) {
+		this(tourGuideService, executionStrategy, TrackerSettings.DEFAULT);
+	}
+
+	public Tracker(TourGuideService tourGuideService, ExecutionStrategy executionStrategy,
+			TrackerSettings settings) {
 		this.tourGuideService = tourGuideService;
+		this.settings = settings;
+		this.permits = new Semaphore(settings.maxConcurrency());
+		this.executorService = executionStrategy.newExecutor("tracker", new ExecutorSettings(1, 1));
 
 		executorService.submit(this);
 	}
@@ -33,31 +81,162 @@ public class Tracker extends Thread {
 		executorService.shutdownNow();
 	}
 
+	/**
+	 * Registers the tracker meters: the lag of the trackings behind their due
+	 * time, the duration of the cycles between two sweeps, the scheduled and in
+	 * flight users, the completed trackings and the tracker executor metrics.
+	 *
+	 * @param meterRegistry the registry to bind to
+	 */
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		lagTimer = lagTimer(meterRegistry);
+		cycleTimer = cycleTimer(meterRegistry);
+		Gauge.builder("tourguide.tracker.scheduled.users", schedule, DelayQueue::size)
+				.description("Users waiting for their next tracking").register(meterRegistry);
+		Gauge.builder("tourguide.tracker.in.flight", permits,
+				semaphore -> settings.maxConcurrency() - semaphore.availablePermits())
+				.description("Trackings currently running").register(meterRegistry);
+		FunctionCounter.builder("tourguide.tracker.trackings", trackedCount, AtomicLong::get)
+				.description("Trackings completed by the tracker").register(meterRegistry);
+		new ExecutorServiceMetrics(executorService, "tracker", List.of()).bindTo(meterRegistry);
+	}
+
+	private static Timer lagTimer(MeterRegistry meterRegistry) {
+		return Timer.builder("tourguide.tracker.lag")
+				.description("Delay between the due time of a tracking and its start").publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	private static Timer cycleTimer(MeterRegistry meterRegistry) {
+		return Timer.builder("tourguide.tracker.cycle").description("Duration between two sweeps of the users")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * @return the number of trackings completed since the tracker started
+	 */
+	public long getTrackedCount() {
+		return trackedCount.get();
+	}
+
 	@Override
 	public void run() {
-		StopWatch stopWatch = new StopWatch();
+		long intervalNanos = settings.interval().toNanos();
+		long nextSweep = System.nanoTime();
+		long lastSweep = 0;
+		long trackedAtSweep = 0;
 		while (true) {
 			if (Thread.currentThread().isInterrupted() || stop) {
 				log.debug("Tracker stopping");
 				break;
 			}
 
-			List<User> users = tourGuideService.getAllUsers();
-			String result = "Begin Tracker. Tracking " + users.size() + " users.";
-			log.debug(result);
-			stopWatch.start();
-			users.forEach(tourGuideService::trackUserLocation);
-			stopWatch.stop();
-			result = "Tracker Time Elapsed: " + TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds.";
-			log.debug(result);
-			stopWatch.reset();
 			try {
-				log.debug("Tracker sleeping");
-				TimeUnit.SECONDS.sleep(TRACKING_POLLING_INTERVAL);
+				long now = System.nanoTime();
+				if (now - nextSweep >= 0) {
+					if (lastSweep != 0) {
+						cycleTimer.record(now - lastSweep, TimeUnit.NANOSECONDS);
+						long tracked = trackedCount.get();
+						log.debug("Tracker tracked {} users in {} seconds", tracked - trackedAtSweep,
+								TimeUnit.NANOSECONDS.toSeconds(now - lastSweep));
+						trackedAtSweep = tracked;
+					}
+					lastSweep = now;
+					scheduleNewUsers(now, intervalNanos);
+					nextSweep = now + intervalNanos;
+				}
+				ScheduledUser due = schedule.poll(nextSweep - now, TimeUnit.NANOSECONDS);
+				if (due != null) {
+					permits.acquire();
+					lagTimer.record(Math.max(0, System.nanoTime() - due.dueNanos), TimeUnit.NANOSECONDS);
+					track(due);
+				}
 			} catch (InterruptedException e) {
+				log.debug("Tracker interrupted");
+				Thread.currentThread().interrupt();
 				break;
 			}
 		}
+	}
+
+	/*
+	 * Spreads the users not scheduled yet over the next interval.
+	 */
+	private void scheduleNewUsers(long now, long intervalNanos) {
+		List<User> newUsers = tourGuideService.streamAllUsers()
+				.filter(user -> !scheduledUserIds.contains(user.getUserId())).toList();
+		log.debug("Begin Tracker. Tracking {} users, {} new.", tourGuideService.getUserCount(), newUsers.size());
+		for (int i = 0; i < newUsers.size(); i++) {
+			User user = newUsers.get(i);
+			scheduledUserIds.add(user.getUserId());
+			Location lastLocation = user.getVisitedLocationHistory().isEmpty() ? null
+					: user.getLastVisitedLocation().location;
+			long offset = (long) ((double) intervalNanos * i / newUsers.size());
+			schedule.add(new ScheduledUser(user, intervalNanos, now + offset, lastLocation));
+		}
+	}
+
+	private void track(ScheduledUser scheduledUser) {
+		CompletableFuture<VisitedLocation> tracking;
+		try {
+			tracking = tourGuideService.trackUserLocation(scheduledUser.user);
+		} catch (RuntimeException e) {
+			tracking = CompletableFuture.failedFuture(e);
+		}
+		tracking.whenComplete((visitedLocation, failure) -> {
+			permits.release();
+			trackedCount.incrementAndGet();
+			if (stop) {
+				return;
+			}
+			if (failure != null) {
+				log.error("Tracking failed for user " + scheduledUser.user.getUserName(), failure);
+				scheduledUser.intervalNanos = settings.interval().toNanos();
+			} else {
+				scheduledUser.intervalNanos = nextInterval(scheduledUser, visitedLocation.location);
+				scheduledUser.lastLocation = visitedLocation.location;
+			}
+			scheduledUser.dueNanos = System.nanoTime() + scheduledUser.intervalNanos;
+			schedule.add(scheduledUser);
+		});
+	}
+
+	private long nextInterval(ScheduledUser scheduledUser, Location location) {
+		boolean moved = scheduledUser.lastLocation == null
+				|| DistanceCalculator.getDistance(scheduledUser.lastLocation, location) >= settings
+						.stationaryDistanceMiles();
+		if (moved) {
+			return settings.interval().toNanos();
+		}
+		return Math.min(scheduledUser.intervalNanos * 2, settings.maxInterval().toNanos());
+	}
 
+	/*
+	 * Only one thread at a time owns an entry: the tracker thread while it is
+	 * queued, the thread completing its tracking afterwards.
+	 */
+	private static final class ScheduledUser implements Delayed {
+		private final User user;
+		private long intervalNanos;
+		private long dueNanos;
+		private Location lastLocation;
+
+		private ScheduledUser(User user, long intervalNanos, long dueNanos, Location lastLocation) {
+			this.user = user;
+			this.intervalNanos = intervalNanos;
+			this.dueNanos = dueNanos;
+			this.lastLocation = lastLocation;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(dueNanos, ((ScheduledUser) other).dueNanos);
+		}
 	}
 }
@@ -0,0 +1,35 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+
+/**
+ * Tuning of the {@link Tracker} scheduling.
+ *
+ * @param interval                the delay between two trackings of a user who
+ *                                keeps moving
+ * @param maxInterval             the longest delay a stationary user is backed
+ *                                off to
+ * @param stationaryDistanceMiles the distance under which a user is considered
+ *                                not to have moved
+ * @param maxConcurrency          the maximum number of users tracked at the
+ *                                same time
+ */
+public record TrackerSettings(Duration interval, Duration maxInterval, double stationaryDistanceMiles,
+		int maxConcurrency) {
+
+	public static final TrackerSettings DEFAULT = new TrackerSettings(Duration.ofMinutes(5), Duration.ofMinutes(30),
+			0.1, 1000);
+
+	public TrackerSettings {
+		if (interval.isNegative() || interval.isZero()) {
+			throw new IllegalArgumentException("Tracking interval must be positive : " + interval);
+		}
+		if (maxInterval.compareTo(interval) < 0) {
+			throw new IllegalArgumentException(
+					"Maximum tracking interval " + maxInterval + " is lower than the interval " + interval);
+		}
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("Tracking concurrency must be at least 1 : " + maxConcurrency);
+		}
+	}
+}
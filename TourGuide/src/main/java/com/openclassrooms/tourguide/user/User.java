@@ -1,10 +1,15 @@
 package com.openclassrooms.tourguide.user;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
 import tripPricer.Provider;
 
@@ -14,16 +19,28 @@ public class User {
 	private String phoneNumber;
 	private String emailAddress;
 	private Date latestLocationTimestamp;
-	private List<VisitedLocation> visitedLocations = new ArrayList<>();
-	private List<UserReward> userRewards = new ArrayList<>();
+	private final VisitedLocationHistory visitedLocations;
+	// rewards by attraction name, the attraction ids changing with every attraction fetch, and the same rewards in
+	// the order they were added
+	private final ConcurrentMap<String, UserReward> userRewardsByAttraction = new ConcurrentHashMap<>();
+	private final List<UserReward> userRewards = new CopyOnWriteArrayList<>();
 	private UserPreferences userPreferences = new UserPreferences();
 	private List<Provider> tripDeals = new ArrayList<>();
 
 	public User(UUID userId, String userName, String phoneNumber, String emailAddress) {
+		this(userId, userName, phoneNumber, emailAddress, VisitedLocationHistory.DEFAULT_RETENTION);
+	}
+
+	/**
+	 * @param historyRetention the maximum number of visited locations kept for the
+	 *                         user
+	 */
+	public User(UUID userId, String userName, String phoneNumber, String emailAddress, int historyRetention) {
 		this.userId = userId;
 		this.userName = userName;
 		this.phoneNumber = phoneNumber;
 		this.emailAddress = emailAddress;
+		this.visitedLocations = new VisitedLocationHistory(userId, historyRetention);
 	}
 
 	public UUID getUserId() {
@@ -59,10 +76,18 @@ public class User {
 	}
 
 	public void addToVisitedLocations(VisitedLocation visitedLocation) {
-		visitedLocations.add(visitedLocation);
+		visitedLocations.append(visitedLocation);
 	}
 
+	/**
+	 * @return an immutable snapshot of the retained visited locations, oldest
+	 *         first
+	 */
 	public List<VisitedLocation> getVisitedLocations() {
+		return visitedLocations.snapshot();
+	}
+
+	public VisitedLocationHistory getVisitedLocationHistory() {
 		return visitedLocations;
 	}
 
@@ -70,15 +95,32 @@ public class User {
 		visitedLocations.clear();
 	}
 
+	/**
+	 * Adds a reward unless the user has already been rewarded for an attraction of
+	 * the same name.
+	 *
+	 * @param userReward the reward to add
+	 */
 	public void addUserReward(UserReward userReward) {
-		if (userRewards.stream()
-				.noneMatch(r -> r.attraction.attractionName.equals(userReward.attraction.attractionName))) {
+		if (userRewardsByAttraction.putIfAbsent(userReward.attraction.attractionName, userReward) == null) {
 			userRewards.add(userReward);
 		}
 	}
 
+	/**
+	 * @param attraction the attraction
+	 * @return true if the user has already been rewarded for an attraction of
+	 *         the same name
+	 */
+	public boolean hasRewardFor(Attraction attraction) {
+		return userRewardsByAttraction.containsKey(attraction.attractionName);
+	}
+
+	/**
+	 * @return a read-only view of the rewards, in the order they were added
+	 */
 	public List<UserReward> getUserRewards() {
-		return userRewards;
+		return Collections.unmodifiableList(userRewards);
 	}
 
 	public UserPreferences getUserPreferences() {
@@ -90,7 +132,7 @@ public class User {
 	}
 
 	public VisitedLocation getLastVisitedLocation() {
-		return visitedLocations.get(visitedLocations.size() - 1);
+		return visitedLocations.last();
 	}
 
 	public void setTripDeals(List<Provider> tripDeals) {
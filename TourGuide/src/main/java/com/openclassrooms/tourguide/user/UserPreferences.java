@@ -1,5 +1,7 @@
 package com.openclassrooms.tourguide.user;
 
+import java.util.Objects;
+
 public class UserPreferences {
 
 	private int attractionProximity = Integer.MAX_VALUE;
@@ -52,4 +54,22 @@ public class UserPreferences {
 		this.numberOfChildren = numberOfChildren;
 	}
 
+	@Override
+	public int hashCode() {
+		return Objects.hash(attractionProximity, tripDuration, ticketQuantity, numberOfAdults, numberOfChildren);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof UserPreferences other)) {
+			return false;
+		}
+		return attractionProximity == other.attractionProximity && tripDuration == other.tripDuration
+				&& ticketQuantity == other.ticketQuantity && numberOfAdults == other.numberOfAdults
+				&& numberOfChildren == other.numberOfChildren;
+	}
+
 }
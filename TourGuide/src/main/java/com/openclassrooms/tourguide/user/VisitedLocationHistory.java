@@ -0,0 +1,269 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Append-only history of the locations visited by a user, keeping at most the
+ * {@code retention} most recent entries.
+ * <p>
+ * Entries are stored in fixed-size chunks that are never rewritten once filled:
+ * old chunks are dropped when they fall out of the retention window and new
+ * ones are allocated as the history grows. Appends are serialized, while
+ * readers never lock and get a snapshot in constant time, which stays valid and
+ * unchanged whatever is appended afterwards.
+ * <p>
+ * A chunk holds its entries in columns, parallel arrays of latitudes,
+ * longitudes and visit times, and the user id is stored once for the whole
+ * history: an entry takes 24 bytes instead of a {@link VisitedLocation}, a
+ * {@link Location} and a {@link Date} object. Snapshots create the
+ * {@link VisitedLocation} of an entry each time it is read.
+ * <p>
+ * Each entry has an absolute position, the number of entries appended before
+ * it, which keeps growing even when old entries are dropped or the history is
+ * cleared.
+ */
+public class VisitedLocationHistory {
+	public static final int DEFAULT_RETENTION = 1000;
+
+	private static final int CHUNK_SIZE = 64;
+	// capacity of the first chunk, grown up to CHUNK_SIZE, most histories being short
+	private static final int FIRST_CHUNK_CAPACITY = 4;
+	private static final Chunk[] NO_CHUNKS = new Chunk[0];
+
+	private final int retention;
+	// the user of every entry, taken from the first one unless given
+	private volatile UUID userId;
+	// chunks are published before the size, readers read the size first
+	private volatile Chunks chunks = new Chunks(NO_CHUNKS, 0);
+	private volatile int size;
+
+	/*
+	 * arrays[k] holds the entries at the positions [first + k * CHUNK_SIZE, first
+	 * + (k + 1) * CHUNK_SIZE[
+	 */
+	private record Chunks(Chunk[] arrays, int first) {
+	}
+
+	private record Chunk(double[] latitudes, double[] longitudes, long[] timesVisited) {
+
+		Chunk(int capacity) {
+			this(new double[capacity], new double[capacity], new long[capacity]);
+		}
+
+		int capacity() {
+			return latitudes.length;
+		}
+
+		/*
+		 * A copy with twice the capacity, the snapshots keeping the current one.
+		 */
+		Chunk widen() {
+			int capacity = Math.min(CHUNK_SIZE, capacity() * 2);
+			return new Chunk(Arrays.copyOf(latitudes, capacity), Arrays.copyOf(longitudes, capacity),
+					Arrays.copyOf(timesVisited, capacity));
+		}
+	}
+
+	public VisitedLocationHistory() {
+		this(DEFAULT_RETENTION);
+	}
+
+	/**
+	 * @param retention the maximum number of entries kept, at least 1
+	 */
+	public VisitedLocationHistory(int retention) {
+		this(null, retention);
+	}
+
+	/**
+	 * @param userId    the user of the entries, or null to take the one of the
+	 *                  first entry appended
+	 * @param retention the maximum number of entries kept, at least 1
+	 */
+	public VisitedLocationHistory(UUID userId, int retention) {
+		if (retention < 1) {
+			throw new IllegalArgumentException("Retention must be at least 1 : " + retention);
+		}
+		this.userId = userId;
+		this.retention = retention;
+	}
+
+	public int getRetention() {
+		return retention;
+	}
+
+	/**
+	 * Appends a location, dropping the oldest chunk once it is entirely out of the
+	 * retention window.
+	 *
+	 * @param visitedLocation the location to append
+	 * @throws IllegalArgumentException if the location is the one of another user
+	 */
+	public synchronized void append(VisitedLocation visitedLocation) {
+		if (userId == null) {
+			userId = visitedLocation.userId;
+		} else if (!userId.equals(visitedLocation.userId)) {
+			throw new IllegalArgumentException(
+					"Location of user " + visitedLocation.userId + " appended to the history of user " + userId);
+		}
+		append(visitedLocation.location.latitude, visitedLocation.location.longitude,
+				visitedLocation.timeVisited.getTime());
+	}
+
+	/**
+	 * Appends a location from its values, without a {@link VisitedLocation} to
+	 * unpack, as when restoring a history.
+	 *
+	 * @param latitude    the latitude of the location
+	 * @param longitude   the longitude of the location
+	 * @param timeVisited the time of the visit, in milliseconds since the epoch
+	 */
+	public synchronized void append(double latitude, double longitude, long timeVisited) {
+		int position = size;
+		Chunks current = chunks;
+		int offset = position - current.first();
+		if (offset / CHUNK_SIZE == current.arrays().length) {
+			current = grow(current, position);
+			chunks = current;
+			offset = position - current.first();
+		}
+		int index = offset / CHUNK_SIZE;
+		int slot = offset % CHUNK_SIZE;
+		Chunk chunk = current.arrays()[index];
+		if (slot == chunk.capacity()) {
+			chunk = chunk.widen();
+			Chunk[] arrays = current.arrays().clone();
+			arrays[index] = chunk;
+			current = new Chunks(arrays, current.first());
+			chunks = current;
+		}
+		chunk.latitudes()[slot] = latitude;
+		chunk.longitudes()[slot] = longitude;
+		chunk.timesVisited()[slot] = timeVisited;
+		size = position + 1;
+	}
+
+	private Chunks grow(Chunks current, int position) {
+		int retainedFrom = position + 1 - retention;
+		int first = current.first();
+		int dropped = 0;
+		while (dropped < current.arrays().length && first + CHUNK_SIZE <= retainedFrom) {
+			first += CHUNK_SIZE;
+			dropped++;
+		}
+		Chunk[] arrays = Arrays.copyOfRange(current.arrays(), dropped, current.arrays().length + 1);
+		arrays[arrays.length - 1] = new Chunk(position < CHUNK_SIZE ? FIRST_CHUNK_CAPACITY : CHUNK_SIZE);
+		return new Chunks(arrays, first);
+	}
+
+	/**
+	 * Drops every entry. Positions keep growing from where they were.
+	 */
+	public synchronized void clear() {
+		chunks = new Chunks(NO_CHUNKS, size);
+	}
+
+	/**
+	 * @return the number of entries ever appended, which is also the position of
+	 *         the next entry
+	 */
+	public int getAppendedCount() {
+		return size;
+	}
+
+	/**
+	 * Returns an immutable view of the retained entries, oldest first, without
+	 * copying them.
+	 *
+	 * @return the snapshot
+	 */
+	public List<VisitedLocation> snapshot() {
+		return since(0);
+	}
+
+	/**
+	 * Returns an immutable view of the retained entries whose position is at
+	 * least {@code position}, oldest first, without copying them.
+	 *
+	 * @param position the absolute position of the first entry wanted
+	 * @return the snapshot
+	 */
+	public List<VisitedLocation> since(int position) {
+		return between(position, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns an immutable view of the retained entries whose position is in
+	 * {@code [from, to[}, oldest first, without copying them.
+	 *
+	 * @param from the absolute position of the first entry wanted
+	 * @param to   the absolute position following the last entry wanted
+	 * @return the snapshot
+	 */
+	public List<VisitedLocation> between(int from, int to) {
+		int appended = size;
+		Chunks current = chunks;
+		int end = Math.min(appended, to);
+		int start = Math.max(Math.max(current.first(), appended - retention), from);
+		if (start >= end) {
+			return List.of();
+		}
+		return new Snapshot(userId, current, start, end);
+	}
+
+	/**
+	 * @return the most recent entry
+	 * @throws NoSuchElementException if the history is empty
+	 */
+	public VisitedLocation last() {
+		List<VisitedLocation> snapshot = snapshot();
+		if (snapshot.isEmpty()) {
+			throw new NoSuchElementException("No visited location");
+		}
+		return snapshot.get(snapshot.size() - 1);
+	}
+
+	public boolean isEmpty() {
+		return snapshot().isEmpty();
+	}
+
+	private static final class Snapshot extends AbstractList<VisitedLocation> implements RandomAccess {
+		private final UUID userId;
+		private final Chunks chunks;
+		private final int start;
+		private final int end;
+
+		private Snapshot(UUID userId, Chunks chunks, int start, int end) {
+			this.userId = userId;
+			this.chunks = chunks;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public VisitedLocation get(int index) {
+			if (index < 0 || index >= end - start) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			int offset = start + index - chunks.first();
+			Chunk chunk = chunks.arrays()[offset / CHUNK_SIZE];
+			int slot = offset % CHUNK_SIZE;
+			return new VisitedLocation(userId, new Location(chunk.latitudes()[slot], chunk.longitudes()[slot]),
+					new Date(chunk.timesVisited()[slot]));
+		}
+
+		@Override
+		public int size() {
+			return end - start;
+		}
+	}
+}
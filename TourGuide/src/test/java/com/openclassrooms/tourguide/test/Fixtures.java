@@ -0,0 +1,73 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.provider.SimulatedTripPricingProvider;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.service.TripDealGateway;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Services and assertions shared by the tests.
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	/**
+	 * @param locationProvider the provider of the user locations
+	 * @return a rewards service whose points come from the simulated provider,
+	 *         without latency
+	 */
+	static RewardsService simulatedRewardsService(LocationProvider locationProvider) {
+		return RewardsService.builder(locationProvider, new SimulatedRewardPointsProvider(1, LatencyModel.none()))
+				.build();
+	}
+
+	/**
+	 * @param locationProvider the provider of the user locations
+	 * @return a builder of a tour guide service whose rewards and trip deals
+	 *         come from the simulated providers, without latency, and whose
+	 *         users are kept in a default sized repository
+	 */
+	static TourGuideService.Builder simulatedTourGuideService(LocationProvider locationProvider) {
+		return simulatedTourGuideService(locationProvider, simulatedRewardsService(locationProvider));
+	}
+
+	/**
+	 * @param locationProvider the provider of the user locations
+	 * @param rewardsService   the rewards service
+	 * @return a builder of a tour guide service whose trip deals come from the
+	 *         simulated provider, without latency, and whose users are kept in
+	 *         a default sized repository
+	 */
+	static TourGuideService.Builder simulatedTourGuideService(LocationProvider locationProvider,
+			RewardsService rewardsService) {
+		return TourGuideService.builder(locationProvider, rewardsService)
+				.tripDealGateway(new TripDealGateway(new SimulatedTripPricingProvider(1, LatencyModel.none())))
+				.userRepository(new InMemoryUserRepository());
+	}
+
+	/**
+	 * Asserts that two lists hold the same locations of the same users at the
+	 * same times, {@link VisitedLocation} having no equals.
+	 */
+	static void assertSameLocations(List<VisitedLocation> expected, List<VisitedLocation> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).userId, actual.get(i).userId);
+			assertEquals(expected.get(i).location.latitude, actual.get(i).location.latitude);
+			assertEquals(expected.get(i).location.longitude, actual.get(i).location.longitude);
+			assertEquals(expected.get(i).timeVisited, actual.get(i).timeVisited);
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.attraction.AttractionCatalog;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+class TestAttractionCatalog {
+
+	@Test
+	void attractionsAreLoadedOnce() {
+		ChangingLocationProvider locationProvider = new ChangingLocationProvider();
+		RewardsService rewardsService = RewardsService
+				.builder(locationProvider, new SimulatedRewardPointsProvider(1, LatencyModel.none())).build();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		for (int i = 0; i < 10; i++) {
+			user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(i, i), new Date()));
+			rewardsService.calculateRewards(user).join();
+		}
+		rewardsService.findNearestAttractions(new Location(0, 0),
+				rewardsService.getAttractionCatalog().getAttractions(), 1);
+
+		assertEquals(1, locationProvider.calls.get());
+	}
+
+	@Test
+	void refreshKeepsTheSnapshotOfTheSameAttractions() {
+		ChangingLocationProvider locationProvider = new ChangingLocationProvider();
+		AttractionCatalog catalog = new AttractionCatalog(locationProvider);
+		AttractionCatalog.Snapshot snapshot = catalog.getSnapshot();
+
+		assertSame(snapshot, catalog.refresh());
+
+		locationProvider.add(new Attraction("new", "city", "state", 10, 10));
+		AttractionCatalog.Snapshot refreshed = catalog.refresh();
+
+		assertNotSame(snapshot, refreshed);
+		assertEquals(snapshot.version() + 1, refreshed.version());
+		assertEquals(2, catalog.getAttractions().size());
+		assertSame(refreshed.index(), catalog.getIndex());
+	}
+
+	@Test
+	void refreshedAttractionsAreRewardedForPastLocations() {
+		ChangingLocationProvider locationProvider = new ChangingLocationProvider();
+		RewardsService rewardsService = RewardsService
+				.builder(locationProvider, new SimulatedRewardPointsProvider(1, LatencyModel.none())).build();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(10, 10), new Date()));
+		rewardsService.calculateRewards(user).join();
+		assertEquals(0, user.getUserRewards().size());
+
+		locationProvider.add(new Attraction("new", "city", "state", 10, 10));
+		rewardsService.getAttractionCatalog().refresh();
+		rewardsService.calculateRewards(user).join();
+
+		assertEquals(1, user.getUserRewards().size());
+	}
+
+	@Test
+	void refreshKeepsTheUnchangedAttractions() {
+		ChangingLocationProvider locationProvider = new ChangingLocationProvider();
+		AttractionCatalog catalog = new AttractionCatalog(locationProvider);
+		Attraction first = catalog.getAttractions().get(0);
+
+		locationProvider.add(new Attraction("new", "city", "state", 10, 10));
+		catalog.refresh();
+		Attraction added = catalog.getAttractions().get(1);
+		locationProvider.add(new Attraction("newer", "city", "state", 20, 20));
+		catalog.refresh();
+
+		assertEquals(3, catalog.getAttractions().size());
+		assertSame(first, catalog.getAttractions().get(0));
+		assertSame(added, catalog.getAttractions().get(1));
+		assertEquals("newer", catalog.getAttractions().get(2).attractionName);
+	}
+
+	@Test
+	void refreshKeepsTheCachedRewardPoints() {
+		ChangingLocationProvider locationProvider = new ChangingLocationProvider();
+		AtomicInteger rewardPointsCalls = new AtomicInteger();
+		RewardsService rewardsService = RewardsService.builder(locationProvider, (attractionId, userId) -> {
+			rewardPointsCalls.incrementAndGet();
+			return 100;
+		}).build();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(-40, -40), new Date()));
+		rewardsService.calculateRewards(user).join();
+
+		locationProvider.add(new Attraction("new", "city", "state", 10, 10));
+		rewardsService.getAttractionCatalog().refresh();
+		Attraction refreshed = rewardsService.getAttractionCatalog().getAttractions().get(0);
+
+		assertEquals(100, rewardsService.getRewardPoints(refreshed, user));
+		assertEquals(1, rewardPointsCalls.get());
+	}
+
+	@Test
+	void scheduledRefreshSurvivesFailures() throws InterruptedException {
+		ChangingLocationProvider locationProvider = new ChangingLocationProvider();
+		AttractionCatalog catalog = new AttractionCatalog(locationProvider, Duration.ofMillis(20));
+		locationProvider.failing = true;
+		TimeUnit.MILLISECONDS.sleep(100);
+		assertEquals(1, catalog.getSnapshot().version());
+
+		locationProvider.failing = false;
+		locationProvider.add(new Attraction("new", "city", "state", 10, 10));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (catalog.getSnapshot().version() == 1 && System.nanoTime() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+		catalog.shutdown();
+
+		assertEquals(2, catalog.getSnapshot().version());
+		assertTrue(locationProvider.calls.get() > 2);
+	}
+
+	private static class ChangingLocationProvider implements LocationProvider {
+		private final List<Attraction> attractions = new ArrayList<>(
+				List.of(new Attraction("first", "city", "state", -40, -40)));
+		private final AtomicInteger calls = new AtomicInteger();
+		private volatile boolean failing;
+
+		synchronized void add(Attraction attraction) {
+			attractions.add(attraction);
+		}
+
+		@Override
+		public VisitedLocation getUserLocation(UUID userId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public synchronized List<Attraction> getAttractions() {
+			calls.incrementAndGet();
+			if (failing) {
+				throw new IllegalStateException("unavailable");
+			}
+			// new instances with new ids on every call, as GpsUtil does
+			return attractions.stream().map(attraction -> new Attraction(attraction.attractionName, attraction.city,
+					attraction.state, attraction.latitude, attraction.longitude)).toList();
+		}
+	}
+}
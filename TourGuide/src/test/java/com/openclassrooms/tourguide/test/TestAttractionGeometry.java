@@ -0,0 +1,150 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.openclassrooms.tourguide.attraction.AttractionGeometry;
+import com.openclassrooms.tourguide.attraction.DistanceCalculator;
+import com.openclassrooms.tourguide.attraction.DistanceKernel;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+class TestAttractionGeometry {
+
+	private static final double[] RADIUSES = { 0, 1e-6, 0.5, 10, 200, 5000, 12000, 12437, 12450,
+			Integer.MAX_VALUE };
+
+	@Test
+	void sameDistancesAsDistanceCalculator() {
+		Random random = new Random(3);
+		List<Attraction> attractions = attractions(random);
+		AttractionGeometry geometry = AttractionGeometry.of(attractions);
+
+		for (Location location : locations(random, attractions)) {
+			AttractionGeometry.Point point = AttractionGeometry.point(location);
+			for (int i = 0; i < attractions.size(); i++) {
+				assertEquals(DistanceCalculator.getDistance(location, attractions.get(i)), geometry.distance(i, point));
+				assertEquals(DistanceCalculator.getDistance(attractions.get(i), location), geometry.distance(i, point));
+			}
+		}
+	}
+
+	@Test
+	void closeLocationsAreNotNaNApart() {
+		Random random = new Random(17);
+		for (int i = 0; i < 10_000; i++) {
+			Location location = randomLocation(random);
+			Location close = new Location(location.latitude + 1e-9, location.longitude - 1e-9);
+			assertTrue(DistanceCalculator.getDistance(location, location) < 1e-3);
+			assertTrue(DistanceCalculator.getDistance(location, close) < 1e-3);
+		}
+	}
+
+	@Test
+	void sameWithinChecksAsDistanceCalculator() {
+		Random random = new Random(5);
+		List<Attraction> attractions = attractions(random);
+		AttractionGeometry geometry = AttractionGeometry.of(attractions);
+
+		for (Location location : locations(random, attractions)) {
+			for (double radius : RADIUSES) {
+				AttractionGeometry.Circle circle = AttractionGeometry.circle(location, radius);
+				for (int i = 0; i < attractions.size(); i++) {
+					double distance = DistanceCalculator.getDistance(attractions.get(i), location);
+					assertEquals(distance < radius, geometry.isWithin(i, circle));
+					// a circle passing exactly through the attraction
+					assertEquals(false, geometry.isWithin(i, AttractionGeometry.circle(location, distance)));
+					assertEquals(true, geometry.isWithin(i, AttractionGeometry.circle(location, Math.nextUp(distance))));
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "scalar", "vector" })
+	void batchWithinChecksSameAsDistanceCalculator(String kernelName) {
+		DistanceKernel kernel = kernel(kernelName);
+		Random random = new Random(9);
+		List<Attraction> attractions = attractions(random);
+		AttractionGeometry geometry = AttractionGeometry.of(attractions, kernel);
+
+		for (Location location : locations(random, attractions)) {
+			for (double radius : RADIUSES) {
+				int[] expected = IntStream.range(0, attractions.size())
+						.filter(i -> DistanceCalculator.getDistance(attractions.get(i), location) < radius).toArray();
+				assertArrayEquals(expected, geometry.indexesWithin(AttractionGeometry.circle(location, radius)));
+			}
+		}
+	}
+
+	@Test
+	void vectorKernelSameAsScalarKernel() {
+		DistanceKernel vector = kernel("vector");
+		Random random = new Random(13);
+		for (int length : new int[] { 0, 1, 3, 26, 1000, 1003 }) {
+			double[] x = random.doubles(length, -1, 1).toArray();
+			double[] y = random.doubles(length, -1, 1).toArray();
+			double[] z = random.doubles(length, -1, 1).toArray();
+			double[] expected = new double[length];
+			double[] actual = new double[length];
+			DistanceKernel.scalar().dotProducts(x, y, z, 0.3, -0.5, 0.81, expected, length);
+			vector.dotProducts(x, y, z, 0.3, -0.5, 0.81, actual, length);
+			assertArrayEquals(expected, actual);
+		}
+	}
+
+	private static DistanceKernel kernel(String name) {
+		if (name.equals("scalar")) {
+			return DistanceKernel.scalar();
+		}
+		assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+				"jdk.incubator.vector not loaded");
+		return DistanceKernel.vector();
+	}
+
+	private static List<Attraction> attractions(Random random) {
+		List<Attraction> attractions = new ArrayList<>(new GpsUtil().getAttractions());
+		attractions.add(new Attraction("north pole", "city", "state", 90, 0));
+		attractions.add(new Attraction("south pole", "city", "state", -90, 0));
+		attractions.add(new Attraction("date line", "city", "state", 0, 180));
+		for (int i = 0; i < 200; i++) {
+			Location location = randomLocation(random);
+			attractions.add(new Attraction("attraction" + i, "city", "state", location.latitude, location.longitude));
+		}
+		return attractions;
+	}
+
+	/*
+	 * Random locations, plus the attractions themselves, their antipodes and
+	 * locations a hair away from them.
+	 */
+	private static List<Location> locations(Random random, List<Attraction> attractions) {
+		List<Location> locations = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			locations.add(randomLocation(random));
+		}
+		for (Attraction attraction : attractions.subList(0, 40)) {
+			locations.add(new Location(attraction.latitude, attraction.longitude));
+			locations.add(new Location(-attraction.latitude, attraction.longitude + 180));
+			locations.add(new Location(attraction.latitude + 1e-9, attraction.longitude - 1e-9));
+		}
+		return locations;
+	}
+
+	private static Location randomLocation(Random random) {
+		return new Location(-90 + random.nextDouble() * 180, -180 + random.nextDouble() * 360);
+	}
+}
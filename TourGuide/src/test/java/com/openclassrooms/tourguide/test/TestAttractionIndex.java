@@ -0,0 +1,119 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.openclassrooms.tourguide.attraction.AttractionIndex;
+import com.openclassrooms.tourguide.attraction.DistanceCalculator;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+
+class TestAttractionIndex {
+
+	private static final double[] RADIUSES = { 0, 1, 10, 200, 1000, 5000, 12000, Integer.MAX_VALUE };
+
+	@Test
+	void sameResultsAsBruteForceForGpsUtilAttractions() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		AttractionIndex index = AttractionIndex.of(attractions);
+		Random random = new Random(42);
+
+		for (Attraction attraction : attractions) {
+			for (double radius : RADIUSES) {
+				assertEquals(bruteForce(attractions, attraction, radius), index.findWithin(attraction, radius));
+			}
+		}
+		for (int i = 0; i < 500; i++) {
+			Location location = randomLocation(random);
+			for (double radius : RADIUSES) {
+				assertEquals(bruteForce(attractions, location, radius), index.findWithin(location, radius));
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0.1, 1, 5, 45 })
+	void sameResultsAsBruteForceForDenseAttractions(double cellSizeDegrees) {
+		Random random = new Random(7);
+		List<Attraction> attractions = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			Location location = randomLocation(random);
+			attractions.add(new Attraction("attraction" + i, "city", "state", location.latitude, location.longitude));
+		}
+		AttractionIndex index = AttractionIndex.of(attractions, cellSizeDegrees);
+
+		List<Location> locations = new ArrayList<>();
+		locations.add(new Location(90, 0));
+		locations.add(new Location(-90, 0));
+		locations.add(new Location(0, 180));
+		locations.add(new Location(0, -180));
+		locations.add(new Location(89.9, 179.9));
+		locations.add(new Location(-12.5, -179.99));
+		for (int i = 0; i < 100; i++) {
+			locations.add(randomLocation(random));
+		}
+
+		for (Location location : locations) {
+			for (double radius : RADIUSES) {
+				assertEquals(bruteForce(attractions, location, radius), index.findWithin(location, radius));
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 5, 26, 100 })
+	void nearestSameAsFullSort(int limit) {
+		Random random = new Random(11);
+		List<Attraction> attractions = new ArrayList<>(new GpsUtil().getAttractions());
+		for (int i = 0; i < 1000; i++) {
+			Location location = randomLocation(random);
+			attractions.add(new Attraction("attraction" + i, "city", "state", location.latitude, location.longitude));
+		}
+		AttractionIndex index = AttractionIndex.of(attractions);
+
+		for (int i = 0; i < 100; i++) {
+			Location location = randomLocation(random);
+			List<Attraction> expected = attractions.stream()
+					.sorted(Comparator.comparingDouble(attraction -> DistanceCalculator.getDistance(location, attraction)))
+					.limit(limit).toList();
+			assertEquals(expected, index.findNearest(location, limit));
+		}
+	}
+
+	@Test
+	void isBuiltFrom() {
+		GpsUtil gpsUtil = new GpsUtil();
+		List<Attraction> attractions = gpsUtil.getAttractions();
+		AttractionIndex index = AttractionIndex.of(attractions);
+
+		List<Attraction> moved = new ArrayList<>(attractions);
+		Attraction first = moved.get(0);
+		moved.set(0, new Attraction(first.attractionName, first.city, first.state, first.latitude + 1,
+				first.longitude));
+
+		assertTrue(index.isBuiltFrom(gpsUtil.getAttractions()));
+		assertFalse(index.isBuiltFrom(moved));
+		assertFalse(index.isBuiltFrom(attractions.subList(1, attractions.size())));
+	}
+
+	private static List<Attraction> bruteForce(List<Attraction> attractions, Location location, double radius) {
+		return attractions.stream()
+				.filter(attraction -> DistanceCalculator.getDistance(attraction, location) < radius).toList();
+	}
+
+	private static Location randomLocation(Random random) {
+		return new Location(-90 + random.nextDouble() * 180, -180 + random.nextDouble() * 360);
+	}
+}
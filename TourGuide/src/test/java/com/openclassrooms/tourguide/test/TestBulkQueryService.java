@@ -0,0 +1,145 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.dto.BulkResultDto;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.service.BulkQueryService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.VisitedLocation;
+
+class TestBulkQueryService {
+
+	@Test
+	void answersEveryName() throws InterruptedException {
+		TourGuideService tourGuideService = withUsers(3);
+		BulkQueryService bulkQueryService = new BulkQueryService(tourGuideService, 2);
+
+		List<BulkResultDto<VisitedLocation>> results = new ArrayList<>();
+		bulkQueryService.forEach(List.of("user0", "unknown", "user1", "user2", "user0"),
+				tourGuideService::getUserLocationAsync, results::add);
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(5, results.size());
+		Map<String, Long> counts = results.stream()
+				.collect(Collectors.groupingBy(BulkResultDto::userName, Collectors.counting()));
+		assertEquals(Map.of("user0", 2L, "user1", 1L, "user2", 1L, "unknown", 1L), counts);
+		for (BulkResultDto<VisitedLocation> result : results) {
+			if (result.userName().equals("unknown")) {
+				assertNull(result.result());
+				assertEquals("Unknown user", result.error());
+			} else {
+				assertNull(result.error());
+				assertEquals(tourGuideService.getUser(result.userName()).getUserId(), result.result().userId);
+			}
+		}
+	}
+
+	@Test
+	void failedQueriesAreReported() throws InterruptedException {
+		TourGuideService tourGuideService = withUsers(2);
+		BulkQueryService bulkQueryService = new BulkQueryService(tourGuideService, 4);
+		Function<User, CompletableFuture<String>> query = user -> {
+			if (user.getUserName().equals("user0")) {
+				throw new IllegalStateException("thrown");
+			}
+			return CompletableFuture.supplyAsync(() -> {
+				throw new IllegalStateException("failed");
+			});
+		};
+
+		List<BulkResultDto<String>> results = new ArrayList<>();
+		bulkQueryService.forEach(List.of("user0", "user1"), query, results::add);
+		tourGuideService.tracker.stopTracking();
+
+		Map<String, String> errors = results.stream()
+				.collect(Collectors.toMap(BulkResultDto::userName, BulkResultDto::error));
+		assertEquals(Map.of("user0", "thrown", "user1", "failed"), errors);
+	}
+
+	@Test
+	void queriesThatNeverCompleteTimeOut() throws InterruptedException {
+		TourGuideService tourGuideService = withUsers(3);
+		BulkQueryService bulkQueryService = new BulkQueryService(tourGuideService, 2, Duration.ofMillis(100));
+		CompletableFuture<String> never = new CompletableFuture<>();
+		Function<User, CompletableFuture<String>> query = user -> user.getUserName().equals("user1") ? never
+				: CompletableFuture.completedFuture(user.getUserName());
+
+		List<BulkResultDto<String>> results = new ArrayList<>();
+		bulkQueryService.forEach(List.of("user0", "user1", "user2"), query, results::add);
+		// a late completion is not handed over twice
+		never.complete("late");
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(3, results.size());
+		Map<String, BulkResultDto<String>> byName = results.stream()
+				.collect(Collectors.toMap(BulkResultDto::userName, Function.identity()));
+		assertEquals("user0", byName.get("user0").result());
+		assertEquals("user2", byName.get("user2").result());
+		assertNull(byName.get("user1").result());
+		assertEquals("Timed out after PT0.1S", byName.get("user1").error());
+	}
+
+	@Test
+	void parallelismIsBounded() throws InterruptedException {
+		TourGuideService tourGuideService = withUsers(50);
+		BulkQueryService bulkQueryService = new BulkQueryService(tourGuideService, 4);
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		Function<User, CompletableFuture<String>> query = user -> {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			return CompletableFuture.supplyAsync(() -> {
+				LatencyModel.fixed(Duration.ofMillis(5)).pause();
+				inFlight.decrementAndGet();
+				return user.getUserName();
+			}, executor);
+		};
+
+		List<String> userNames = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			userNames.add("user" + i);
+		}
+		List<BulkResultDto<String>> results = new ArrayList<>();
+		bulkQueryService.forEach(userNames, query, results::add);
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(50, results.size());
+		results.forEach(result -> assertNotNull(result.result()));
+		assertTrue(maxInFlight.get() <= 4, "max in flight " + maxInFlight.get());
+	}
+
+	private static TourGuideService withUsers(int userCount) {
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = Fixtures
+				.simulatedTourGuideService(new SimulatedLocationProvider(1, LatencyModel.none())).build();
+		for (int i = 0; i < userCount; i++) {
+			tourGuideService.addUser(new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com"));
+		}
+		return tourGuideService;
+	}
+}
@@ -0,0 +1,82 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.openclassrooms.tourguide.config.ExecutionStrategy;
+import com.openclassrooms.tourguide.config.ExecutorSettings;
+
+class TestExecutionStrategy {
+
+	@ParameterizedTest
+	@EnumSource(ExecutionStrategy.class)
+	void callerRunsOnceFull(ExecutionStrategy strategy) throws InterruptedException {
+		ExecutorService executorService = strategy.newExecutor("bounded", new ExecutorSettings(1, 1));
+		CountDownLatch release = new CountDownLatch(1);
+		Runnable blocking = () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		executorService.execute(blocking);
+		CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> {
+		}, executorService);
+
+		Thread caller = Thread.currentThread();
+		CompletableFuture<Thread> overflow = CompletableFuture.supplyAsync(Thread::currentThread, executorService);
+
+		assertEquals(caller, overflow.join());
+		release.countDown();
+		queued.join();
+		assertTrue(new ExecutorSettings(1, 1, Duration.ofSeconds(5)).drain(executorService));
+	}
+
+	@ParameterizedTest
+	@EnumSource(ExecutionStrategy.class)
+	void rejectsAfterShutdown(ExecutionStrategy strategy) {
+		ExecutorService executorService = strategy.newExecutor("bounded", new ExecutorSettings(1, 1));
+		executorService.shutdown();
+
+		assertThrows(RejectedExecutionException.class, () -> executorService.execute(() -> {
+		}));
+	}
+
+	@ParameterizedTest
+	@EnumSource(ExecutionStrategy.class)
+	void drainInterruptsAfterTimeout(ExecutionStrategy strategy) throws InterruptedException {
+		ExecutorSettings settings = new ExecutorSettings(1, 1, Duration.ofMillis(100));
+		ExecutorService executorService = strategy.newExecutor("bounded", settings);
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean interrupted = new AtomicBoolean();
+		CountDownLatch stopped = new CountDownLatch(1);
+		executorService.execute(() -> {
+			started.countDown();
+			try {
+				TimeUnit.MINUTES.sleep(1);
+			} catch (InterruptedException e) {
+				interrupted.set(true);
+			}
+			stopped.countDown();
+		});
+		started.await();
+
+		assertFalse(settings.drain(executorService));
+		assertTrue(stopped.await(5, TimeUnit.SECONDS));
+		assertTrue(interrupted.get());
+	}
+}
@@ -0,0 +1,75 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.helper.InternalUserSettings;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+class TestInternalUserGenerator {
+
+	@Test
+	void sameSeedGivesSameUsers() {
+		InternalUserGenerator generator = new InternalUserGenerator(7);
+		InternalUserGenerator sameSeed = new InternalUserGenerator(7);
+		InternalUserGenerator otherSeed = new InternalUserGenerator(8);
+
+		for (int i = 0; i < 100; i++) {
+			User user = generator.generate(i);
+			assertEquals("internalUser" + i, user.getUserName());
+			assertEquals(4, user.getUserId().version());
+			assertEquals(InternalUserGenerator.HISTORY_SIZE, user.getVisitedLocations().size());
+			assertEquals(describe(user), describe(sameSeed.generate(i)));
+			assertNotEquals(describe(user), describe(otherSeed.generate(i)));
+		}
+	}
+
+	@Test
+	void parallelGenerationIsReproducible() {
+		InternalUserGenerator generator = new InternalUserGenerator(7);
+		InMemoryUserRepository userRepository = new InMemoryUserRepository(10_000);
+
+		generator.generate(10_000, userRepository);
+
+		assertEquals(10_000, userRepository.count());
+		for (int i = 0; i < 10_000; i += 97) {
+			User user = userRepository.findByUserName("internalUser" + i).orElseThrow();
+			assertEquals(describe(generator.generate(i)), describe(user));
+			assertEquals(user, userRepository.findById(user.getUserId()).orElseThrow());
+		}
+	}
+
+	@Test
+	void usersCanBeGeneratedInTheBackground() throws Exception {
+		InternalTestHelper.setInternalUserNumber(5000);
+		TourGuideService tourGuideService = Fixtures
+				.simulatedTourGuideService(new SimulatedLocationProvider(1, LatencyModel.none()))
+				.userRepository(new InMemoryUserRepository(5000))
+				.internalUserSettings(new InternalUserSettings(7, true)).build();
+
+		tourGuideService.getInternalUsersInitialization().get(10, TimeUnit.SECONDS);
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(5000, tourGuideService.getUserCount());
+		assertTrue(tourGuideService.getUser("internalUser4999") != null);
+	}
+
+	private static List<Object> describe(User user) {
+		return List.of(user.getUserId(), user.getVisitedLocations().stream()
+				.map(visitedLocation -> List.of(visitedLocation.location.latitude, visitedLocation.location.longitude,
+						visitedLocation.timeVisited))
+				.toList());
+	}
+}
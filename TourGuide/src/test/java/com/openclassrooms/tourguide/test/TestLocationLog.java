@@ -0,0 +1,255 @@
+package com.openclassrooms.tourguide.test;
+
+import static com.openclassrooms.tourguide.test.Fixtures.assertSameLocations;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.helper.InternalUserSettings;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.LocationLog;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+class TestLocationLog {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsThePagesOfTheLocationsOfAUser() throws IOException {
+		UUID userId = UUID.randomUUID();
+		UUID otherId = UUID.randomUUID();
+		try (LocationLog locationLog = LocationLog.open(directory, 16)) {
+			List<VisitedLocation> appended = new ArrayList<>();
+			// several segments, the records of the two users interleaved
+			for (int i = 0; i < 50; i++) {
+				VisitedLocation visitedLocation = visitedLocation(userId, i);
+				appended.add(visitedLocation);
+				locationLog.append(visitedLocation);
+				locationLog.append(visitedLocation(otherId, -i));
+			}
+
+			assertEquals(100, locationLog.size());
+			assertEquals(50, locationLog.count(userId));
+			assertSameLocations(appended.subList(10, 20), locationLog.read(userId, 10, 20));
+			assertSameLocations(appended.subList(40, 50), locationLog.read(userId, 40, 60));
+			assertTrue(locationLog.read(userId, 60, 70).isEmpty());
+			assertTrue(locationLog.read(UUID.randomUUID(), 0, 10).isEmpty());
+		}
+	}
+
+	@Test
+	void survivesAReopening() throws IOException {
+		UUID userId = UUID.randomUUID();
+		List<VisitedLocation> appended = new ArrayList<>();
+		try (LocationLog locationLog = LocationLog.open(directory, 16)) {
+			for (int i = 0; i < 40; i++) {
+				VisitedLocation visitedLocation = visitedLocation(userId, i);
+				appended.add(visitedLocation);
+				locationLog.append(visitedLocation);
+			}
+		}
+
+		try (LocationLog locationLog = LocationLog.open(directory, 16)) {
+			assertEquals(40, locationLog.size());
+			assertEquals(40, locationLog.count(userId));
+			assertSameLocations(appended, locationLog.read(userId, 0, 40));
+
+			VisitedLocation visitedLocation = visitedLocation(userId, 40);
+			locationLog.append(visitedLocation);
+			assertSameLocations(List.of(visitedLocation), locationLog.read(userId, 40, 41));
+		}
+	}
+
+	@Test
+	void concurrentAppendsAreAllKept() throws IOException {
+		List<UUID> userIds = IntStream.range(0, 100).mapToObj(i -> UUID.randomUUID()).toList();
+		try (LocationLog locationLog = LocationLog.open(directory, 1000)) {
+			userIds.parallelStream().forEach(userId -> {
+				for (int i = 0; i < 100; i++) {
+					locationLog.append(visitedLocation(userId, i));
+				}
+			});
+
+			assertEquals(10_000, locationLog.size());
+			for (UUID userId : userIds) {
+				List<VisitedLocation> visitedLocations = locationLog.read(userId, 0, 100);
+				assertEquals(100, visitedLocations.size());
+				for (int i = 0; i < 100; i++) {
+					assertEquals(i, visitedLocations.get(i).location.latitude);
+				}
+			}
+		}
+	}
+
+	@Test
+	void closedLogRejectsAppends() throws IOException {
+		LocationLog locationLog = LocationLog.open(directory, 16);
+		locationLog.close();
+
+		assertThrows(IllegalStateException.class, () -> locationLog.append(visitedLocation(UUID.randomUUID(), 0)));
+	}
+
+	@Test
+	void closeWaitsForTheAppendsInProgress() throws Exception {
+		LocationLog locationLog = LocationLog.open(directory, 1000);
+		int threadCount = 4;
+		CountDownLatch started = new CountDownLatch(threadCount);
+		AtomicInteger appended = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		for (int thread = 0; thread < threadCount; thread++) {
+			executor.execute(() -> {
+				UUID userId = UUID.randomUUID();
+				started.countDown();
+				try {
+					for (int i = 0;; i++) {
+						locationLog.append(visitedLocation(userId, i));
+						appended.incrementAndGet();
+					}
+				} catch (IllegalStateException e) {
+					// closed
+				}
+			});
+		}
+		started.await();
+		TimeUnit.MILLISECONDS.sleep(20);
+		locationLog.close();
+		// no record is reserved once close has returned
+		int sizeAtClose = locationLog.size();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+		assertEquals(sizeAtClose, locationLog.size());
+		assertEquals(appended.get(), sizeAtClose);
+		assertThrows(IllegalStateException.class, () -> locationLog.read(UUID.randomUUID(), 0, 1));
+		try (LocationLog reopened = LocationLog.open(directory, 1000)) {
+			assertEquals(sizeAtClose, reopened.size());
+			assertEquals(sizeAtClose, reopened.getUserIds().stream().mapToInt(reopened::count).sum());
+		}
+	}
+
+	@Test
+	void trackedLocationsAreRestoredAfterARestart() throws IOException {
+		InternalTestHelper.setInternalUserNumber(5);
+		LocationProvider locationProvider = new SimulatedLocationProvider(1, LatencyModel.none());
+		List<VisitedLocation> logged;
+		try (LocationLog locationLog = LocationLog.open(directory, 16)) {
+			TourGuideService tourGuideService = Fixtures.simulatedTourGuideService(locationProvider)
+					.locationLog(locationLog).build();
+			User user = tourGuideService.getUser("internalUser1");
+			for (int i = 0; i < 3; i++) {
+				tourGuideService.trackUserLocation(user).join();
+			}
+			tourGuideService.shutdown();
+			// the tracker may have tracked the user as well
+			logged = locationLog.read(user.getUserId(), 0, locationLog.count(user.getUserId()));
+		}
+		assertTrue(logged.size() >= 3);
+
+		try (LocationLog locationLog = LocationLog.open(directory, 16)) {
+			TourGuideService tourGuideService = Fixtures.simulatedTourGuideService(locationProvider)
+					.locationLog(locationLog).build();
+			tourGuideService.shutdown();
+			User user = tourGuideService.getUser("internalUser1");
+
+			// restored after the generated locations, possibly followed by a new tracking
+			List<VisitedLocation> visitedLocations = user.getVisitedLocations();
+			int restoredTo = InternalUserGenerator.HISTORY_SIZE + logged.size();
+			assertTrue(visitedLocations.size() >= restoredTo);
+			assertSameLocations(logged, visitedLocations.subList(InternalUserGenerator.HISTORY_SIZE, restoredTo));
+			assertSameLocations(logged.subList(1, 2), tourGuideService.getVisitedLocations(user, 1, 1));
+		}
+	}
+
+	@Test
+	void backgroundInitializationRestoresEachLoggedLocationOnce() throws IOException {
+		int userCount = 100;
+		InternalTestHelper.setInternalUserNumber(userCount);
+		InternalUserSettings internalUserSettings = new InternalUserSettings(7, true);
+		InternalUserGenerator generator = new InternalUserGenerator(internalUserSettings.seed());
+		List<UUID> userIds = IntStream.range(0, userCount).mapToObj(i -> generator.generate(i).getUserId()).toList();
+		// logged by a previous run, older than the trackings of this one
+		try (LocationLog locationLog = LocationLog.open(directory, 1000)) {
+			for (UUID userId : userIds) {
+				for (int i = 0; i < 3; i++) {
+					locationLog.append(visitedLocation(userId, i));
+				}
+			}
+		}
+
+		try (LocationLog locationLog = LocationLog.open(directory, 1000)) {
+			LocationProvider locationProvider = new SimulatedLocationProvider(1, LatencyModel.none());
+			AtomicReference<TourGuideService> service = new AtomicReference<>();
+			// the generation waits for the tracker to track one of the first users
+			InMemoryUserRepository userRepository = new InMemoryUserRepository(userCount) {
+
+				@Override
+				public boolean add(User user) {
+					boolean added = super.add(user);
+					long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+					while ((service.get() == null || service.get().tracker.getTrackedCount() == 0)
+							&& System.nanoTime() < deadline) {
+						Thread.onSpinWait();
+					}
+					return added;
+				}
+			};
+			RewardsService rewardsService = Fixtures.simulatedRewardsService(locationProvider);
+			TourGuideService tourGuideService = Fixtures.simulatedTourGuideService(locationProvider, rewardsService)
+					.userRepository(userRepository)
+					.trackerSettings(new TrackerSettings(Duration.ofMillis(10), Duration.ofMillis(10), 0.1, 16))
+					.internalUserSettings(internalUserSettings).locationLog(locationLog).build();
+			service.set(tourGuideService);
+			tourGuideService.getInternalUsersInitialization().join();
+			tourGuideService.shutdown();
+			rewardsService.shutdown();
+
+			for (int user = 0; user < userCount; user++) {
+				UUID userId = userIds.get(user);
+				List<VisitedLocation> visitedLocations = tourGuideService.getUser("internalUser" + user)
+						.getVisitedLocations();
+				List<VisitedLocation> restored = visitedLocations.subList(InternalUserGenerator.HISTORY_SIZE,
+						visitedLocations.size());
+				assertSameLocations(List.of(visitedLocation(userId, 0), visitedLocation(userId, 1),
+						visitedLocation(userId, 2)), restored.subList(0, Math.min(3, restored.size())));
+				for (int i = 1; i < restored.size(); i++) {
+					assertFalse(restored.get(i).timeVisited.before(restored.get(i - 1).timeVisited));
+				}
+			}
+		}
+	}
+
+	private static VisitedLocation visitedLocation(UUID userId, int i) {
+		return new VisitedLocation(userId, new Location(i, i / 2.0), new Date(1_700_000_000_000L + i));
+	}
+}
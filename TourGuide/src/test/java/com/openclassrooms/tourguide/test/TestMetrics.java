@@ -0,0 +1,74 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.metrics.MeteredLocationProvider;
+import com.openclassrooms.tourguide.metrics.MeteredRewardPointsProvider;
+import com.openclassrooms.tourguide.metrics.OutcomeTimer;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.VisitedLocation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TestMetrics {
+
+	@Test
+	void trackingPipelineIsTimed() {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		LocationProvider locationProvider = new MeteredLocationProvider(
+				new SimulatedLocationProvider(42, LatencyModel.none()), meterRegistry);
+		RewardsService rewardsService = RewardsService.builder(locationProvider, new MeteredRewardPointsProvider(
+				new SimulatedRewardPointsProvider(42, LatencyModel.none()), meterRegistry)).build();
+		rewardsService.setProximityBuffer(Integer.MAX_VALUE);
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = TourGuideService.builder(locationProvider, rewardsService).build();
+		tourGuideService.tracker.stopTracking();
+		rewardsService.bindTo(meterRegistry);
+		tourGuideService.bindTo(meterRegistry);
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		List<VisitedLocation> visitedLocations = List.of(tourGuideService.trackUserLocation(user).join(),
+				tourGuideService.trackUserLocation(user).join());
+
+		assertEquals(2, visitedLocations.size());
+		assertEquals(2, meterRegistry.get("tourguide.tracking").tag("outcome", "success").timer().count());
+		assertEquals(2, meterRegistry.get("tourguide.rewards.calculation").tag("outcome", "success").timer().count());
+		assertEquals(2, meterRegistry.get("tourguide.upstream.calls")
+				.tags("method", "getUserLocation", "outcome", "success").timer().count());
+		assertEquals(SimulatedLocationProvider.DEFAULT_ATTRACTION_COUNT,
+				meterRegistry.get("tourguide.upstream.calls")
+						.tags("method", "getAttractionRewardPoints", "outcome", "success").timer().count());
+		assertNotNull(meterRegistry.get("executor.pool.size").tag("name", "tour-guide").gauge());
+		assertNotNull(meterRegistry.get("executor.queued").tag("name", "rewards").gauge());
+		assertNotNull(meterRegistry.get("tourguide.tracker.scheduled.users").gauge());
+	}
+
+	@Test
+	void failuresAreTaggedSeparately() {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		OutcomeTimer timer = OutcomeTimer.register(meterRegistry, "test.operation", "test");
+
+		assertEquals("done", timer.record(() -> "done"));
+		assertThrows(IllegalStateException.class, () -> timer.record(() -> {
+			throw new IllegalStateException();
+		}));
+
+		assertEquals(1, meterRegistry.get("test.operation").tag("outcome", "success").timer().count());
+		assertEquals(1, meterRegistry.get("test.operation").tag("outcome", "failure").timer().count());
+	}
+}
@@ -14,7 +14,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import com.openclassrooms.tourguide.config.ExcelWriter;
+import com.openclassrooms.tourguide.config.ExecutionStrategy;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.provider.GpsUtilLocationProvider;
+import com.openclassrooms.tourguide.provider.RewardCentralPointsProvider;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
@@ -31,6 +34,10 @@ class TestPerformance {
 
 	private ExcelWriter excelWriter = new ExcelWriter();
 
+	// run with -Dtourguide.execution.mode=virtual to use virtual threads
+	private ExecutionStrategy executionStrategy = ExecutionStrategy
+			.fromMode(System.getProperty("tourguide.execution.mode", "fixed"));
+
 	/*
 	 * A note on performance improvements:
 	 * 
@@ -52,16 +59,48 @@ class TestPerformance {
 	 * highVolumeGetRewards: 100,000 users within 20 minutes:
 	 * assertTrue(TimeUnit.MINUTES.toSeconds(20) >=
 	 * TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
+	 *
+	 * The execution strategy of the services is selected with the
+	 * tourguide.execution.mode system property (fixed or virtual), and
+	 * compareExecutionStrategies reports both side by side.
 	 */
 
 	@ParameterizedTest
 	@ValueSource(ints = { 100, 1000, 5000, 10000, 50000, 100000 })
 	void highVolumeTrackLocation(int nbuser) {
+		StopWatch stopWatch = trackAllUsers(nbuser, executionStrategy);
+
+		excelWriter.writePerformanceResult("highVolumeTrackLocation", nbuser,
+				TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
+
+		log.info("highVolumeTrackLocation for " + nbuser + " (" + executionStrategy.getMode() + ") : Time Elapsed: "
+				+ TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds.");
+
+		assertTrue(TimeUnit.MINUTES.toSeconds(15) >= TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1000, 10000 })
+	void compareExecutionStrategies(int nbuser) {
+		StringBuilder result = new StringBuilder("compareExecutionStrategies for " + nbuser + " :");
+		for (ExecutionStrategy strategy : ExecutionStrategy.values()) {
+			StopWatch stopWatch = trackAllUsers(nbuser, strategy);
+			result.append(" ").append(strategy.getMode()).append(" = ").append(stopWatch.getTime()).append(" ms");
+
+			assertTrue(TimeUnit.MINUTES.toSeconds(15) >= TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
+		}
+		log.info(result.toString());
+	}
+
+	private StopWatch trackAllUsers(int nbuser, ExecutionStrategy strategy) {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.executionStrategy(strategy).build();
 
 		InternalTestHelper.setInternalUserNumber(nbuser);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).executionStrategy(strategy).build();
 		List<User> allUsers = tourGuideService.getAllUsers();
 
 		StopWatch stopWatch = new StopWatch();
@@ -74,27 +113,24 @@ class TestPerformance {
 
 		stopWatch.stop();
 		tourGuideService.tracker.stopTracking();
-
-		excelWriter.writePerformanceResult("highVolumeTrackLocation", nbuser,
-				TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
-
-		log.info("highVolumeTrackLocation for " + nbuser + " : Time Elapsed: "
-				+ TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds.");
-
-		assertTrue(TimeUnit.MINUTES.toSeconds(15) >= TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
+		return stopWatch;
 	}
 
 	@ParameterizedTest
 	@ValueSource(ints = { 100, 1000, 5000, 10000, 50000, 100000 })
 	void highVolumeGetRewards(int nbuser) {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.executionStrategy(executionStrategy).build();
 		InternalTestHelper.setInternalUserNumber(nbuser);
 
 		StopWatch stopWatch = new StopWatch();
 		stopWatch.start();
 
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).executionStrategy(executionStrategy)
+				.build();
 
 		Attraction attraction = gpsUtil.getAttractions().get(0);
 
@@ -103,8 +139,8 @@ class TestPerformance {
 		allUsers.parallelStream()
 				.forEach(u -> u.addToVisitedLocations(new VisitedLocation(u.getUserId(), attraction, new Date())));
 
-		allUsers.parallelStream().forEach(user -> rewardsService.calculateRewards(user)
-				.thenAccept(res -> assertFalse(user.getUserRewards().isEmpty())));
+		rewardsService.calculateRewards(allUsers).join();
+		allUsers.forEach(user -> assertFalse(user.getUserRewards().isEmpty()));
 
 		stopWatch.stop();
 		tourGuideService.tracker.stopTracking();
@@ -112,7 +148,7 @@ class TestPerformance {
 		excelWriter.writePerformanceResult("highVolumeGetRewards", nbuser,
 				TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
 
-		log.info("highVolumeGetRewards for " + nbuser + " : Time Elapsed: "
+		log.info("highVolumeGetRewards for " + nbuser + " (" + executionStrategy.getMode() + ") : Time Elapsed: "
 				+ TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds.");
 
 		assertTrue(TimeUnit.MINUTES.toSeconds(20) >= TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
@@ -0,0 +1,67 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.service.RewardPointsCache;
+
+import rewardCentral.RewardCentral;
+
+class TestRewardPointsCache {
+
+	@Test
+	void concurrentMissesMakeOneUpstreamCall() {
+		CountingRewardCentral rewardCentral = new CountingRewardCentral();
+		RewardPointsCache rewardPointsCache = new RewardPointsCache(rewardCentral);
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+		ExecutorService executorService = Executors.newFixedThreadPool(20);
+
+		List<CompletableFuture<Integer>> futures = IntStream.range(0, 20)
+				.mapToObj(i -> CompletableFuture.supplyAsync(
+						() -> rewardPointsCache.getRewardPoints(attractionId, userId), executorService))
+				.toList();
+		List<Integer> points = futures.stream().map(CompletableFuture::join).distinct().toList();
+		executorService.shutdown();
+
+		assertEquals(1, rewardCentral.calls.get());
+		assertEquals(1, points.size());
+		assertEquals(1, rewardPointsCache.stats().missCount());
+		assertEquals(19, rewardPointsCache.stats().hitCount());
+	}
+
+	@Test
+	void keyedByAttractionAndUser() {
+		CountingRewardCentral rewardCentral = new CountingRewardCentral();
+		RewardPointsCache rewardPointsCache = new RewardPointsCache(rewardCentral, 100, Duration.ofMinutes(1));
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+
+		int points = rewardPointsCache.getRewardPoints(attractionId, userId);
+		rewardPointsCache.getRewardPoints(attractionId, UUID.randomUUID());
+		rewardPointsCache.getRewardPoints(UUID.randomUUID(), userId);
+
+		assertEquals(points, rewardPointsCache.getRewardPoints(attractionId, userId));
+		assertEquals(3, rewardCentral.calls.get());
+	}
+
+	private static class CountingRewardCentral extends RewardCentral {
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+			calls.incrementAndGet();
+			return super.getAttractionRewardPoints(attractionId, userId);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.RewardPointsProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+class TestRewardsBatch {
+
+	private final LocationProvider locationProvider = new SimulatedLocationProvider(200, 3, LatencyModel.none());
+	private final List<Attraction> attractions = locationProvider.getAttractions();
+
+	@Test
+	void batchGivesTheSameRewardsAsOneCalculationPerUser() {
+		RewardsService batchService = newRewardsService(new SimulatedRewardPointsProvider(1, LatencyModel.none()));
+		RewardsService singleService = newRewardsService(new SimulatedRewardPointsProvider(1, LatencyModel.none()));
+		List<User> batchUsers = new ArrayList<>();
+		List<User> singleUsers = new ArrayList<>();
+		SplittableRandom random = new SplittableRandom(11);
+		// more users than one chunk, visiting attractions or random places
+		for (int i = 0; i < RewardsService.REWARD_BATCH_SIZE + 500; i++) {
+			UUID userId = UUID.randomUUID();
+			User batchUser = new User(userId, "user" + i, "000", "user" + i + "@tourGuide.com");
+			User singleUser = new User(userId, "user" + i, "000", "user" + i + "@tourGuide.com");
+			for (int k = 0; k < 3; k++) {
+				Location location = random.nextBoolean() ? attractions.get(random.nextInt(attractions.size()))
+						: new Location(random.nextDouble(-85, 85), random.nextDouble(-180, 180));
+				VisitedLocation visitedLocation = new VisitedLocation(userId, location, new Date());
+				batchUser.addToVisitedLocations(visitedLocation);
+				singleUser.addToVisitedLocations(visitedLocation);
+			}
+			batchUsers.add(batchUser);
+			singleUsers.add(singleUser);
+		}
+
+		batchService.calculateRewards(batchUsers).join();
+		for (User user : singleUsers) {
+			singleService.calculateRewards(user).join();
+		}
+
+		for (int i = 0; i < batchUsers.size(); i++) {
+			assertEquals(describe(singleUsers.get(i).getUserRewards()), describe(batchUsers.get(i).getUserRewards()));
+		}
+	}
+
+	@Test
+	void rewardPointsAreLookedUpOncePerUserAndAttraction() {
+		CountingRewardPointsProvider rewardPointsProvider = new CountingRewardPointsProvider();
+		RewardsService rewardsService = newRewardsService(rewardPointsProvider);
+		Attraction attraction = attractions.get(0);
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			User user = new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com");
+			// the same attraction visited several times
+			for (int k = 0; k < 5; k++) {
+				user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+			}
+			users.add(user);
+		}
+
+		rewardsService.calculateRewards(users).join();
+
+		assertEquals(users.size(), rewardPointsProvider.calls.get());
+		assertEquals(users.size(), rewardPointsProvider.pairs.size());
+		for (User user : users) {
+			assertEquals(1, user.getUserRewards().size());
+			assertTrue(user.hasRewardFor(attraction));
+		}
+	}
+
+	@Test
+	void batchOnlyEvaluatesNewLocations() {
+		CountingRewardPointsProvider rewardPointsProvider = new CountingRewardPointsProvider();
+		RewardsService rewardsService = newRewardsService(rewardPointsProvider);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		User other = new User(UUID.randomUUID(), "jane", "000", "jane@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(0), new Date()));
+
+		rewardsService.calculateRewards(List.of(user, other)).join();
+		rewardsService.calculateRewards(List.of(user, other)).join();
+		assertEquals(1, user.getUserRewards().size());
+		assertTrue(other.getUserRewards().isEmpty());
+
+		other.addToVisitedLocations(new VisitedLocation(other.getUserId(), attractions.get(1), new Date()));
+		rewardsService.calculateRewards(List.of(user, other)).join();
+		assertEquals(1, user.getUserRewards().size());
+		assertEquals(1, other.getUserRewards().size());
+		assertEquals(2, rewardPointsProvider.calls.get());
+	}
+
+	@Test
+	void failedLookupLeavesTheLocationsToEvaluateAgain() {
+		CountingRewardPointsProvider rewardPointsProvider = new CountingRewardPointsProvider();
+		RewardsService rewardsService = newRewardsService(rewardPointsProvider);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(0), new Date()));
+
+		rewardPointsProvider.failing = true;
+		assertThrows(CompletionException.class, () -> rewardsService.calculateRewards(List.of(user)).join());
+		assertTrue(user.getUserRewards().isEmpty());
+
+		rewardPointsProvider.failing = false;
+		rewardsService.calculateRewards(List.of(user)).join();
+		assertFalse(user.getUserRewards().isEmpty());
+	}
+
+	private RewardsService newRewardsService(RewardPointsProvider rewardPointsProvider) {
+		return RewardsService.builder(locationProvider, rewardPointsProvider).build();
+	}
+
+	private static List<String> describe(List<UserReward> userRewards) {
+		return userRewards.stream().map(userReward -> userReward.attraction.attractionName + "@"
+				+ userReward.visitedLocation.location.latitude + "," + userReward.visitedLocation.location.longitude
+				+ "=" + userReward.getRewardPoints()).toList();
+	}
+
+	private static class CountingRewardPointsProvider implements RewardPointsProvider {
+		private final AtomicInteger calls = new AtomicInteger();
+		private final Set<List<UUID>> pairs = ConcurrentHashMap.newKeySet();
+		private volatile boolean failing;
+
+		@Override
+		public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+			if (failing) {
+				throw new IllegalStateException("Reward points unavailable");
+			}
+			calls.incrementAndGet();
+			pairs.add(List.of(attractionId, userId));
+			return 100;
+		}
+	}
+}
@@ -3,6 +3,7 @@ package com.openclassrooms.tourguide.test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -12,6 +13,10 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.provider.GpsUtilLocationProvider;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.RewardCentralPointsProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
@@ -29,9 +34,12 @@ class TestRewardsService {
 	@Test
 	void userGetRewards() throws InterruptedException, ExecutionException {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		InternalTestHelper.setInternalUserNumber(0);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
 
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
 		Attraction attraction = gpsUtil.getAttractions().get(0);
@@ -45,7 +53,9 @@ class TestRewardsService {
 	@Test
 	void isWithinAttractionProximity() {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		Attraction attraction = gpsUtil.getAttractions().get(0);
 		assertTrue(rewardsService.isWithinAttractionProximity(attraction, attraction));
 	}
@@ -53,11 +63,14 @@ class TestRewardsService {
 	@Test
 	void nearAllAttractions() {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		rewardsService.setProximityBuffer(Integer.MAX_VALUE);
 
 		InternalTestHelper.setInternalUserNumber(1);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
 
 		rewardsService.calculateRewards(tourGuideService.getAllUsers().get(0)).join();
 		List<UserReward> userRewards = tourGuideService.getUserRewards(tourGuideService.getAllUsers().get(0));
@@ -66,4 +79,64 @@ class TestRewardsService {
 		assertEquals(gpsUtil.getAttractions().size(), userRewards.size());
 	}
 
+	@Test
+	void calculateRewardsOnlyForNewLocations() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
+		List<Attraction> attractions = gpsUtil.getAttractions();
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(0), new Date()));
+		rewardsService.calculateRewards(user).join();
+		rewardsService.calculateRewards(user).join();
+		assertEquals(1, user.getUserRewards().size());
+
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attractions.get(1), new Date()));
+		rewardsService.calculateRewards(user).join();
+		assertEquals(2, user.getUserRewards().size());
+
+		// a wider buffer must re-evaluate the locations already processed
+		rewardsService.setProximityBuffer(Integer.MAX_VALUE);
+		rewardsService.calculateRewards(user).join();
+		assertEquals(attractions.size(), user.getUserRewards().size());
+	}
+
+	@Test
+	void refetchedAttractionsAreNotRewardedAgain() {
+		RefetchingLocationProvider locationProvider = new RefetchingLocationProvider(new GpsUtil());
+		RewardsService rewardsService = RewardsService
+				.builder(locationProvider, new SimulatedRewardPointsProvider(1, LatencyModel.none())).build();
+		Attraction attraction = rewardsService.getAttractionCatalog().getAttractions().get(0);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+		rewardsService.calculateRewards(user).join();
+		assertEquals(1, user.getUserRewards().size());
+
+		// the refreshed catalog holds freshly fetched attractions, with new ids
+		locationProvider.extra = new Attraction("extra", "city", "state", 0, 0);
+		rewardsService.getAttractionCatalog().refresh();
+		rewardsService.calculateRewards(user).join();
+
+		assertEquals(1, user.getUserRewards().size());
+		assertTrue(user.hasRewardFor(rewardsService.getAttractionCatalog().getAttractions().get(0)));
+	}
+
+	private static class RefetchingLocationProvider extends GpsUtilLocationProvider {
+		private volatile Attraction extra;
+
+		RefetchingLocationProvider(GpsUtil gpsUtil) {
+			super(gpsUtil);
+		}
+
+		@Override
+		public List<Attraction> getAttractions() {
+			List<Attraction> attractions = new ArrayList<>(super.getAttractions());
+			if (extra != null) {
+				attractions.add(extra);
+			}
+			return attractions;
+		}
+	}
 }
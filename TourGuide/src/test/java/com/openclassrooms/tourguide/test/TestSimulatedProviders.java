@@ -0,0 +1,109 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedRewardPointsProvider;
+import com.openclassrooms.tourguide.provider.SimulatedTripPricingProvider;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import tripPricer.Provider;
+
+class TestSimulatedProviders {
+
+	@Test
+	void sameSeedSameLocations() {
+		SimulatedLocationProvider first = new SimulatedLocationProvider(100, 42, LatencyModel.none());
+		SimulatedLocationProvider second = new SimulatedLocationProvider(100, 42, LatencyModel.none());
+		UUID userId = UUID.randomUUID();
+
+		List<Attraction> attractions = first.getAttractions();
+		assertEquals(100, attractions.size());
+		assertSame(attractions, first.getAttractions());
+		for (int i = 0; i < attractions.size(); i++) {
+			assertEquals(attractions.get(i).attractionName, second.getAttractions().get(i).attractionName);
+			assertEquals(attractions.get(i).latitude, second.getAttractions().get(i).latitude);
+			assertEquals(attractions.get(i).longitude, second.getAttractions().get(i).longitude);
+		}
+
+		VisitedLocation firstMove = first.getUserLocation(userId);
+		VisitedLocation secondMove = first.getUserLocation(userId);
+		assertNotEquals(firstMove.location.latitude, secondMove.location.latitude);
+		assertEquals(firstMove.location.latitude, second.getUserLocation(userId).location.latitude);
+		assertEquals(secondMove.location.longitude, second.getUserLocation(userId).location.longitude);
+		assertEquals(userId, firstMove.userId);
+	}
+
+	@Test
+	void rewardPointsDependOnlyOnSeedAndIds() {
+		SimulatedRewardPointsProvider provider = new SimulatedRewardPointsProvider(42, LatencyModel.none());
+		UUID attractionId = UUID.randomUUID();
+		UUID userId = UUID.randomUUID();
+
+		int points = provider.getAttractionRewardPoints(attractionId, userId);
+
+		assertTrue(points >= 1 && points < 1000);
+		assertEquals(points, provider.getAttractionRewardPoints(attractionId, userId));
+		assertEquals(points,
+				new SimulatedRewardPointsProvider(42, LatencyModel.none()).getAttractionRewardPoints(attractionId,
+						userId));
+	}
+
+	@Test
+	void tripPricesFollowTripPricerRules() {
+		SimulatedTripPricingProvider provider = new SimulatedTripPricingProvider(42, LatencyModel.none());
+		UUID userId = UUID.randomUUID();
+
+		List<Provider> offers = provider.getPrice("key", userId, 2, 3, 7, 100);
+
+		assertEquals(SimulatedTripPricingProvider.OFFER_COUNT, offers.size());
+		assertEquals(offers.size(), offers.stream().map(offer -> offer.name).distinct().count());
+		assertTrue(offers.stream().allMatch(offer -> offer.price >= 0 && userId.equals(offer.tripId)));
+		List<Provider> again = provider.getPrice("key", userId, 2, 3, 7, 100);
+		for (int i = 0; i < offers.size(); i++) {
+			assertEquals(offers.get(i).name, again.get(i).name);
+			assertEquals(offers.get(i).price, again.get(i).price);
+		}
+	}
+
+	@Test
+	void latencyModels() {
+		assertEquals(0, LatencyModel.parse("none").nextDelayNanos());
+		assertEquals(Duration.ofMillis(50).toNanos(), LatencyModel.parse("fixed:PT0.05S").nextDelayNanos());
+
+		LatencyModel uniform = LatencyModel.parse("uniform:PT0.01S,PT0.02S");
+		assertTrue(LongStream.range(0, 1000).map(i -> uniform.nextDelayNanos())
+				.allMatch(delay -> delay >= 10_000_000 && delay <= 20_000_000));
+
+		long[] delays = LongStream.range(0, 100_000).map(i -> LatencyModel.parse("long-tail:PT0.01S,PT0.1S")
+				.nextDelayNanos()).sorted().toArray();
+		assertEquals(10_000_000, delays[delays.length / 2], 1_000_000);
+		assertEquals(100_000_000, delays[delays.length * 99 / 100], 10_000_000);
+
+		long start = System.nanoTime();
+		LatencyModel.fixed(Duration.ofMillis(20)).pause();
+		assertTrue(System.nanoTime() - start >= Duration.ofMillis(20).toNanos());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "", "slow", "fixed", "fixed:PT1S,PT2S", "uniform:PT2S,PT1S", "long-tail:PT0S,PT1S",
+			"fixed:-PT1S", "uniform:1s,2s" })
+	void invalidLatencyModels(String spec) {
+		assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse(spec));
+	}
+}
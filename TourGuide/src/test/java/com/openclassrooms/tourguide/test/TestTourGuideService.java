@@ -8,7 +8,10 @@ import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 
+import com.openclassrooms.tourguide.dto.UserLocationDto;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.provider.GpsUtilLocationProvider;
+import com.openclassrooms.tourguide.provider.RewardCentralPointsProvider;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
@@ -24,9 +27,12 @@ class TestTourGuideService {
 	@Test
 	void getUserLocation() {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		InternalTestHelper.setInternalUserNumber(0);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
 
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
 		VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user).join();
@@ -37,9 +43,12 @@ class TestTourGuideService {
 	@Test
 	void addUser() {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		InternalTestHelper.setInternalUserNumber(0);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
 
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
 		User user2 = new User(UUID.randomUUID(), "jon2", "000", "jon2@tourGuide.com");
@@ -59,9 +68,12 @@ class TestTourGuideService {
 	@Test
 	void getAllUsers() {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		InternalTestHelper.setInternalUserNumber(0);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
 
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
 		User user2 = new User(UUID.randomUUID(), "jon2", "000", "jon2@tourGuide.com");
@@ -77,12 +89,39 @@ class TestTourGuideService {
 		assertTrue(allUsers.contains(user2));
 	}
 
+	@Test
+	void streamCurrentLocations() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		User user2 = new User(UUID.randomUUID(), "jon2", "000", "jon2@tourGuide.com");
+		tourGuideService.addUser(user);
+		tourGuideService.addUser(user2);
+		tourGuideService.trackUserLocation(user).join();
+		VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user).join();
+
+		List<UserLocationDto> locations = tourGuideService.streamCurrentLocations().toList();
+
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(List.of(new UserLocationDto(visitedLocation)), locations);
+	}
+
 	@Test
 	void trackUser() {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		InternalTestHelper.setInternalUserNumber(0);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
 
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
 		VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user).join();
@@ -95,9 +134,12 @@ class TestTourGuideService {
 	@Test
 	void getNearbyAttractions() {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		InternalTestHelper.setInternalUserNumber(0);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
 
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
 		VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user).join();
@@ -109,12 +151,38 @@ class TestTourGuideService {
 		assertEquals(5, attractions.size());
 	}
 
+	@Test
+	void getNearbyAttractionsWithLimit() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation visitedLocation = tourGuideService.trackUserLocation(user).join();
+
+		List<Attraction> attractions = tourGuideService.getNearByAttractions(visitedLocation, 3);
+		List<Attraction> allAttractions = tourGuideService.getNearByAttractions(visitedLocation, Integer.MAX_VALUE);
+
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(3, attractions.size());
+		assertEquals(gpsUtil.getAttractions().size(), allAttractions.size());
+		assertEquals(attractions, allAttractions.subList(0, 3));
+	}
+
 	@Test
 	void getTripDeals() {
 		GpsUtil gpsUtil = new GpsUtil();
-		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		RewardsService rewardsService = RewardsService
+				.builder(new GpsUtilLocationProvider(gpsUtil), new RewardCentralPointsProvider(new RewardCentral()))
+				.build();
 		InternalTestHelper.setInternalUserNumber(0);
-		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+		TourGuideService tourGuideService = TourGuideService
+				.builder(new GpsUtilLocationProvider(gpsUtil), rewardsService).build();
 
 		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
 
@@ -0,0 +1,105 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.provider.LatencyModel;
+import com.openclassrooms.tourguide.provider.LocationProvider;
+import com.openclassrooms.tourguide.provider.SimulatedLocationProvider;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.TrackerSettings;
+import com.openclassrooms.tourguide.user.User;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+class TestTracker {
+
+	@Test
+	void stationaryUsersAreBackedOff() throws InterruptedException {
+		TrackerSettings settings = new TrackerSettings(Duration.ofMillis(100), Duration.ofMillis(1600), 0.1, 10);
+		User moving = new User(UUID.randomUUID(), "moving", "000", "moving@tourGuide.com");
+		User still = new User(UUID.randomUUID(), "still", "000", "still@tourGuide.com");
+		StillUsersLocationProvider locationProvider = new StillUsersLocationProvider(Duration.ZERO,
+				Set.of(still.getUserId()));
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = Fixtures.simulatedTourGuideService(locationProvider)
+				.trackerSettings(settings).build();
+		tourGuideService.addUser(moving);
+		tourGuideService.addUser(still);
+
+		TimeUnit.SECONDS.sleep(2);
+		tourGuideService.tracker.stopTracking();
+
+		int movingTrackings = moving.getVisitedLocations().size();
+		int stillTrackings = still.getVisitedLocations().size();
+		assertTrue(movingTrackings >= 10, "moving user tracked " + movingTrackings + " times");
+		assertTrue(stillTrackings <= 7, "still user tracked " + stillTrackings + " times");
+	}
+
+	@Test
+	void concurrencyIsLimited() throws InterruptedException {
+		TrackerSettings settings = new TrackerSettings(Duration.ofMillis(100), Duration.ofMillis(100), 0.1, 4);
+		StillUsersLocationProvider locationProvider = new StillUsersLocationProvider(Duration.ofMillis(20),
+				Set.of());
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = Fixtures.simulatedTourGuideService(locationProvider)
+				.trackerSettings(settings).build();
+		for (int i = 0; i < 50; i++) {
+			tourGuideService.addUser(new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com"));
+		}
+
+		TimeUnit.SECONDS.sleep(1);
+		tourGuideService.tracker.stopTracking();
+
+		assertTrue(tourGuideService.tracker.getTrackedCount() > 0);
+		assertTrue(locationProvider.maxConcurrentCalls.get() <= 4,
+				"max concurrent calls " + locationProvider.maxConcurrentCalls.get());
+	}
+
+	/**
+	 * The still users never move, the others move on every call.
+	 */
+	private static class StillUsersLocationProvider implements LocationProvider {
+		private final SimulatedLocationProvider moves = new SimulatedLocationProvider(0, 1, LatencyModel.none());
+		private final LatencyModel latencyModel;
+		private final AtomicInteger concurrentCalls = new AtomicInteger();
+		private final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+		private final Set<UUID> stillUserIds;
+
+		StillUsersLocationProvider(Duration latency, Set<UUID> stillUserIds) {
+			this.latencyModel = LatencyModel.fixed(latency);
+			this.stillUserIds = stillUserIds;
+		}
+
+		@Override
+		public VisitedLocation getUserLocation(UUID userId) {
+			maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+			try {
+				latencyModel.pause();
+				if (stillUserIds.contains(userId)) {
+					return new VisitedLocation(userId, new Location(10, 10), new Date());
+				}
+				return moves.getUserLocation(userId);
+			} finally {
+				concurrentCalls.decrementAndGet();
+			}
+		}
+
+		@Override
+		public List<Attraction> getAttractions() {
+			return List.of();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.service.TripDealGateway;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+class TestTripDealGateway {
+
+	@Test
+	void concurrentRequestsForSameUserArePricedOnce() {
+		CountingTripPricer tripPricer = new CountingTripPricer();
+		TripDealGateway tripDealGateway = new TripDealGateway(tripPricer, 4, 10, Duration.ofMinutes(1));
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		List<CompletableFuture<List<Provider>>> futures = IntStream.range(0, 10)
+				.mapToObj(i -> tripDealGateway.getTripDeals(user)).toList();
+		List<List<Provider>> results = futures.stream().map(CompletableFuture::join).distinct().toList();
+		tripDealGateway.shutdown();
+
+		assertEquals(1, tripPricer.calls.get());
+		assertEquals(1, results.size());
+		assertEquals(5, results.get(0).size());
+	}
+
+	@Test
+	void preferencesChangeIsPricedAgain() {
+		CountingTripPricer tripPricer = new CountingTripPricer();
+		TripDealGateway tripDealGateway = new TripDealGateway(tripPricer);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		List<Provider> providers = tripDealGateway.getTripDeals(user).join();
+		List<Provider> cachedProviders = tripDealGateway.getTripDeals(user).join();
+		user.getUserPreferences().setNumberOfChildren(2);
+		List<Provider> familyProviders = tripDealGateway.getTripDeals(user).join();
+		tripDealGateway.shutdown();
+
+		assertSame(providers, cachedProviders);
+		assertNotSame(providers, familyProviders);
+		assertEquals(2, tripPricer.calls.get());
+	}
+
+	@Test
+	void preferencesWithTheSameHashArePricedSeparately() {
+		CountingTripPricer tripPricer = new CountingTripPricer();
+		TripDealGateway tripDealGateway = new TripDealGateway(tripPricer);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		UserPreferences preferences = user.getUserPreferences();
+		preferences.setNumberOfAdults(1);
+		preferences.setNumberOfChildren(32);
+		int hashCode = preferences.hashCode();
+
+		tripDealGateway.getTripDeals(user).join();
+		// 31 * adults + children, and so Objects.hash, is unchanged
+		preferences.setNumberOfAdults(2);
+		preferences.setNumberOfChildren(1);
+		assertEquals(hashCode, preferences.hashCode());
+		tripDealGateway.getTripDeals(user).join();
+		tripDealGateway.shutdown();
+
+		assertEquals(2, tripPricer.calls.get());
+		assertEquals(List.of(1, 2), tripPricer.adults);
+	}
+
+	@Test
+	void saturatedPricingFailsTheFutureAndIsRetried() throws InterruptedException {
+		CountingTripPricer tripPricer = new CountingTripPricer();
+		TripDealGateway tripDealGateway = new TripDealGateway(tripPricer, 1, 1, Duration.ofMinutes(1));
+		List<User> users = IntStream.range(0, 3)
+				.mapToObj(i -> new User(UUID.randomUUID(), "jon" + i, "000", "jon@tourGuide.com")).toList();
+		tripPricer.blocked.acquire();
+		// one call running, one queued, the third rejected
+		List<CompletableFuture<List<Provider>>> futures = users.stream().map(tripDealGateway::getTripDeals).toList();
+
+		CompletionException rejection = assertThrows(CompletionException.class, () -> futures.get(2).join());
+		assertInstanceOf(RejectedExecutionException.class, rejection.getCause());
+
+		tripPricer.blocked.release();
+		futures.get(0).join();
+		futures.get(1).join();
+		assertEquals(5, tripDealGateway.getTripDeals(users.get(2)).join().size());
+		tripDealGateway.shutdown();
+	}
+
+	private static class CountingTripPricer extends TripPricer {
+		private final AtomicInteger calls = new AtomicInteger();
+		private final List<Integer> adults = new CopyOnWriteArrayList<>();
+		private final Semaphore blocked = new Semaphore(1);
+
+		@Override
+		public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children, int nightsStay,
+				int rewardsPoints) {
+			calls.incrementAndGet();
+			this.adults.add(adults);
+			blocked.acquireUninterruptibly();
+			blocked.release();
+			return super.getPrice(apiKey, attractionId, adults, children, nightsStay, rewardsPoints);
+		}
+	}
+}
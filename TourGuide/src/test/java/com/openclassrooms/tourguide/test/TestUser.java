@@ -0,0 +1,71 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+class TestUser {
+
+	@Test
+	void addUserRewardOncePerAttraction() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), attractions.get(0), new Date());
+
+		IntStream.range(0, 1000).parallel().forEach(i -> user
+				.addUserReward(new UserReward(visitedLocation, attractions.get(i % attractions.size()), i)));
+
+		assertEquals(attractions.size(), user.getUserRewards().size());
+		assertEquals(attractions.size(),
+				user.getUserRewards().stream().map(reward -> reward.attraction.attractionId).distinct().count());
+		assertTrue(attractions.stream().allMatch(user::hasRewardFor));
+	}
+
+	@Test
+	void getUserRewardsKeepsInsertionOrder() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), attractions.get(0), new Date());
+
+		user.addUserReward(new UserReward(visitedLocation, attractions.get(2), 10));
+		user.addUserReward(new UserReward(visitedLocation, attractions.get(0), 20));
+		user.addUserReward(new UserReward(visitedLocation, attractions.get(2), 30));
+
+		List<UserReward> userRewards = user.getUserRewards();
+		assertEquals(2, userRewards.size());
+		assertSame(attractions.get(2), userRewards.get(0).attraction);
+		assertEquals(10, userRewards.get(0).getRewardPoints());
+		assertSame(attractions.get(0), userRewards.get(1).attraction);
+		assertFalse(user.hasRewardFor(attractions.get(1)));
+	}
+
+	@Test
+	void refetchedAttractionsAreNotRewardedAgain() {
+		List<Attraction> attractions = new GpsUtil().getAttractions();
+		List<Attraction> refetched = new GpsUtil().getAttractions();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation visitedLocation = new VisitedLocation(user.getUserId(), attractions.get(0), new Date());
+
+		attractions.forEach(attraction -> user.addUserReward(new UserReward(visitedLocation, attraction, 10)));
+		refetched.forEach(attraction -> user.addUserReward(new UserReward(visitedLocation, attraction, 20)));
+
+		assertEquals(attractions.size(), user.getUserRewards().size());
+		assertTrue(refetched.stream().allMatch(user::hasRewardFor));
+		assertTrue(user.getUserRewards().stream().allMatch(reward -> reward.getRewardPoints() == 10));
+	}
+}
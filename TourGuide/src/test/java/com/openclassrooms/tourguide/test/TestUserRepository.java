@@ -0,0 +1,48 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.user.User;
+
+class TestUserRepository {
+
+	@Test
+	void findByUserNameAndById() {
+		UserRepository userRepository = new InMemoryUserRepository();
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		User sameName = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+		assertTrue(userRepository.add(user));
+		assertFalse(userRepository.add(sameName));
+
+		assertSame(user, userRepository.findByUserName("jon").orElseThrow());
+		assertSame(user, userRepository.findById(user.getUserId()).orElseThrow());
+		assertTrue(userRepository.findById(sameName.getUserId()).isEmpty());
+		assertEquals(1, userRepository.count());
+	}
+
+	@Test
+	void concurrentInsertsWhileIterating() {
+		UserRepository userRepository = new InMemoryUserRepository();
+
+		IntStream.range(0, 10000).parallel().forEach(i -> {
+			userRepository.add(new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com"));
+			userRepository.stream().limit(10).count();
+		});
+
+		assertEquals(10000, userRepository.count());
+		assertEquals(10000, userRepository.findAll().size());
+		IntStream.range(0, 10000)
+				.forEach(i -> assertTrue(userRepository.findByUserName("user" + i).isPresent()));
+	}
+}
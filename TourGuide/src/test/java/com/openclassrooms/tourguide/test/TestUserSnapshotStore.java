@@ -0,0 +1,158 @@
+package com.openclassrooms.tourguide.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.tourguide.helper.InternalUserGenerator;
+import com.openclassrooms.tourguide.repository.InMemoryUserRepository;
+import com.openclassrooms.tourguide.repository.UserRepository;
+import com.openclassrooms.tourguide.repository.UserSnapshotStore;
+import com.openclassrooms.tourguide.service.UserSnapshotService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserPreferences;
+import com.openclassrooms.tourguide.user.UserReward;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+class TestUserSnapshotStore {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void restoresTheUsersAsTheyWereWritten() throws IOException {
+		Attraction attraction = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+		User user = new User(UUID.randomUUID(), "jon", null, "jon@tourGuide.com", 5);
+		user.setLatestLocationTimestamp(new Date(1_700_000_000_000L));
+		UserPreferences preferences = new UserPreferences();
+		preferences.setAttractionProximity(42);
+		preferences.setTripDuration(3);
+		preferences.setTicketQuantity(4);
+		preferences.setNumberOfAdults(2);
+		preferences.setNumberOfChildren(2);
+		user.setUserPreferences(preferences);
+		for (int i = 0; i < 8; i++) {
+			user.addToVisitedLocations(
+					new VisitedLocation(user.getUserId(), new Location(i, -i), new Date(1_700_000_000_000L + i)));
+		}
+		user.addUserReward(new UserReward(user.getLastVisitedLocation(), attraction, 250));
+		User other = new User(UUID.randomUUID(), "jane", "000", "jane@tourGuide.com");
+
+		UserSnapshotStore store = new UserSnapshotStore(directory.resolve("users.snapshot"));
+		assertFalse(store.exists());
+		assertEquals(2, store.write(List.of(user, other)));
+
+		UserRepository userRepository = new InMemoryUserRepository();
+		assertEquals(2, store.read(userRepository, name -> null));
+
+		User restored = userRepository.findById(user.getUserId()).orElseThrow();
+		assertEquals("jon", restored.getUserName());
+		assertNull(restored.getPhoneNumber());
+		assertEquals("jon@tourGuide.com", restored.getEmailAddress());
+		assertEquals(user.getLatestLocationTimestamp(), restored.getLatestLocationTimestamp());
+		assertEquals(preferences, restored.getUserPreferences());
+		assertEquals(5, restored.getVisitedLocationHistory().getRetention());
+		List<VisitedLocation> visitedLocations = restored.getVisitedLocations();
+		assertEquals(5, visitedLocations.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(i + 3, visitedLocations.get(i).location.latitude);
+			assertEquals(-(i + 3), visitedLocations.get(i).location.longitude);
+			assertEquals(new Date(1_700_000_000_000L + i + 3), visitedLocations.get(i).timeVisited);
+		}
+		UserReward reward = restored.getUserRewards().get(0);
+		assertEquals(1, restored.getUserRewards().size());
+		assertEquals(250, reward.getRewardPoints());
+		assertEquals("Disneyland", reward.attraction.attractionName);
+		assertEquals(attraction.latitude, reward.attraction.latitude);
+		assertEquals(7, reward.visitedLocation.location.latitude);
+
+		User restoredOther = userRepository.findByUserName("jane").orElseThrow();
+		assertTrue(restoredOther.getVisitedLocations().isEmpty());
+		assertNull(restoredOther.getLatestLocationTimestamp());
+	}
+
+	@Test
+	void rewardedAttractionsAreResolvedToTheCurrentOnes() throws IOException {
+		Attraction written = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+		// attraction ids change on every start
+		Attraction current = new Attraction("Disneyland", "Anaheim", "CA", 33.817595, -117.922008);
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), written, new Date()));
+		user.addUserReward(new UserReward(user.getLastVisitedLocation(), written, 100));
+
+		UserSnapshotStore store = new UserSnapshotStore(directory.resolve("users.snapshot"));
+		store.write(List.of(user));
+		UserRepository userRepository = new InMemoryUserRepository();
+		store.read(userRepository, name -> name.equals(current.attractionName) ? current : null);
+
+		User restored = userRepository.findById(user.getUserId()).orElseThrow();
+		assertSame(current, restored.getUserRewards().get(0).attraction);
+		assertTrue(restored.hasRewardFor(current));
+	}
+
+	@Test
+	void truncatedSnapshotIsRejected() throws IOException {
+		Path file = directory.resolve("users.snapshot");
+		UserSnapshotStore store = new UserSnapshotStore(file);
+		InMemoryUserRepository users = new InMemoryUserRepository();
+		new InternalUserGenerator(1).generate(100, users);
+		store.write(users.findAll());
+
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+		assertThrows(EOFException.class, () -> store.read(new InMemoryUserRepository(), name -> null));
+	}
+
+	@Test
+	void snapshotIsWrittenWhileTheUsersChange() throws IOException {
+		InMemoryUserRepository users = new InMemoryUserRepository();
+		new InternalUserGenerator(1).generate(1000, users);
+		UserSnapshotStore store = new UserSnapshotStore(directory.resolve("users.snapshot"));
+		UserSnapshotService userSnapshotService = new UserSnapshotService(users, store, Duration.ZERO);
+		AtomicBoolean writing = new AtomicBoolean(true);
+
+		CompletableFuture<Void> tracking = CompletableFuture.runAsync(() -> {
+			int i = 0;
+			while (writing.get()) {
+				for (User user : users.findAll()) {
+					user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(i, i), new Date()));
+				}
+				i++;
+			}
+		});
+		for (int i = 0; i < 5; i++) {
+			assertEquals(1000, userSnapshotService.snapshot());
+		}
+		writing.set(false);
+		tracking.join();
+
+		UserRepository restored = new InMemoryUserRepository();
+		assertEquals(1000, store.read(restored, name -> null));
+		for (User user : users.findAll()) {
+			User restoredUser = restored.findById(user.getUserId()).orElseThrow();
+			assertTrue(restoredUser.getVisitedLocations().size() >= InternalUserGenerator.HISTORY_SIZE);
+		}
+	}
+}
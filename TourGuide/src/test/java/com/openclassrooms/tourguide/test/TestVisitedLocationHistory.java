@@ -0,0 +1,105 @@
+package com.openclassrooms.tourguide.test;
+
+import static com.openclassrooms.tourguide.test.Fixtures.assertSameLocations;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.user.VisitedLocationHistory;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+class TestVisitedLocationHistory {
+
+	private final UUID userId = UUID.randomUUID();
+
+	@Test
+	void keepsTheMostRecentEntriesUpToRetention() {
+		VisitedLocationHistory history = new VisitedLocationHistory(100);
+		List<VisitedLocation> appended = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			VisitedLocation visitedLocation = visitedLocation(i);
+			appended.add(visitedLocation);
+			history.append(visitedLocation);
+		}
+
+		assertSameLocations(appended.subList(900, 1000), history.snapshot());
+		assertSameLocations(List.of(appended.get(999)), List.of(history.last()));
+		assertEquals(1000, history.getAppendedCount());
+		assertSameLocations(appended.subList(950, 1000), history.since(950));
+		assertSameLocations(appended.subList(900, 1000), history.since(10));
+	}
+
+	@Test
+	void snapshotIsNotAffectedByLaterChanges() {
+		VisitedLocationHistory history = new VisitedLocationHistory(10);
+		for (int i = 0; i < 5; i++) {
+			history.append(visitedLocation(i));
+		}
+		List<VisitedLocation> snapshot = history.snapshot();
+		List<VisitedLocation> expected = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			expected.add(visitedLocation(i));
+		}
+
+		for (int i = 5; i < 500; i++) {
+			history.append(visitedLocation(i));
+		}
+		history.clear();
+
+		assertSameLocations(expected, snapshot);
+		assertTrue(history.isEmpty());
+		assertThrows(NoSuchElementException.class, history::last);
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.add(visitedLocation(0)));
+		assertEquals(500, history.getAppendedCount());
+	}
+
+	@Test
+	void readersSeeConsistentSnapshotsWhileWriting() {
+		VisitedLocationHistory history = new VisitedLocationHistory(200);
+		AtomicBoolean writing = new AtomicBoolean(true);
+
+		CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+			while (writing.get()) {
+				List<VisitedLocation> snapshot = history.snapshot();
+				assertTrue(snapshot.size() <= 200);
+				for (int i = 1; i < snapshot.size(); i++) {
+					assertEquals(snapshot.get(i - 1).location.latitude + 1, snapshot.get(i).location.latitude);
+				}
+			}
+		});
+		for (int i = 0; i < 200000; i++) {
+			history.append(visitedLocation(i));
+		}
+		writing.set(false);
+
+		reader.join();
+		assertEquals(200, history.snapshot().size());
+	}
+
+	@Test
+	void storesTheLocationsOfOneUser() {
+		VisitedLocationHistory history = new VisitedLocationHistory(userId, 10);
+		history.append(visitedLocation(0));
+
+		assertEquals(userId, history.last().userId);
+		assertThrows(IllegalArgumentException.class,
+				() -> history.append(new VisitedLocation(UUID.randomUUID(), new Location(1, 1), new Date())));
+		assertEquals(1, history.getAppendedCount());
+	}
+
+	private VisitedLocation visitedLocation(int i) {
+		return new VisitedLocation(userId, new Location(i, -i / 2.0), new Date(1_700_000_000_000L + i));
+	}
+}